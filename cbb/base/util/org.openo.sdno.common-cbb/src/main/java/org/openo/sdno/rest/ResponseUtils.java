@@ -16,10 +16,13 @@
 
 package org.openo.sdno.rest;
 
+import java.io.StringReader;
+
 import org.apache.commons.httpclient.HttpStatus;
 import org.openo.baseservice.remoteservice.exception.ExceptionArgs;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+import org.openo.sdno.framework.container.util.JsonArrayIterator;
 import org.openo.sdno.framework.container.util.JsonUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +62,30 @@ public class ResponseUtils {
         }
     }
 
+    /**
+     * Deal with restful request response whose body is a JSON array, if state is OK return an
+     * iterator which transfers the elements to the given class one at a time, or throw
+     * ServiceException. Only the current element is bound, so a large array is not turned into
+     * a full list of objects. <br>
+     * 
+     * @param response response result of restful request.
+     * @param clazz class of the array elements.
+     * @return iterator of the array elements.
+     * @throws ServiceException if response state is not ok.
+     * @since SDNO 0.5
+     */
+    public static <T> JsonArrayIterator<T> transferResponseArray(RestfulResponse response, Class<T> clazz)
+            throws ServiceException {
+        int httpStatus = response.getStatus();
+        if((httpStatus >= HttpStatus.SC_OK) && (httpStatus < HttpStatus.SC_MULTIPLE_CHOICES)) {
+            return JsonUtil.iterateArray(new StringReader(response.getResponseContent()), clazz);
+        } else {
+            LOGGER.error("response failed, response content: " + response.getResponseContent());
+            checkResonseAndThrowException(response);
+            return null;
+        }
+    }
+
     /**
      * Transfer the restful request response, if status is ok then transfer it to a string, or throw
      * a exception. <br>
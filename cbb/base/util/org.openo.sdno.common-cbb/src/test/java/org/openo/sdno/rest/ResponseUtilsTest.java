@@ -17,11 +17,15 @@
 package org.openo.sdno.rest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
 
 import org.apache.commons.httpclient.HttpStatus;
 import org.junit.Test;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+import org.openo.sdno.framework.container.util.JsonArrayIterator;
 import org.openo.sdno.framework.container.util.JsonUtil;
 
 /**
@@ -66,4 +70,23 @@ public class ResponseUtilsTest {
         ResponseUtils.transferResponse(response, String.class);
     }
 
+    @Test
+    public void testTransferResponseArray() throws ServiceException {
+        RestfulResponse response = new RestfulResponse();
+        response.setStatus(HttpStatus.SC_OK);
+        response.setResponseJson(JsonUtil.toJson(Arrays.asList(testStr, testStr)));
+        JsonArrayIterator<String> iter = ResponseUtils.transferResponseArray(response, String.class);
+        assertEquals(testStr, iter.next());
+        assertEquals(testStr, iter.next());
+        assertFalse(iter.hasNext());
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testTransferResponseArrayNegtive() throws ServiceException {
+        RestfulResponse response = new RestfulResponse();
+        response.setStatus(HttpStatus.SC_MULTIPLE_CHOICES);
+        response.setResponseJson(JsonUtil.toJson(new RoaExceptionInfo()));
+        ResponseUtils.transferResponseArray(response, String.class);
+    }
+
 }
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.httpclient.HttpStatus;
+import org.openo.sdno.framework.base.threadpool.KeyedTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous front end of HTTPSender.<br>
+ * <p>
+ * Requests are queued per host and at most maxInFlightPerHost of them are sent to the same host
+ * at a time. Waiting requests do not hold a thread, so fanning out to many devices only needs as
+ * many threads as there are requests in flight. The results keep the status, body and token
+ * semantics of the synchronous HTTPSender calls.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-22
+ */
+public class AsyncHTTPSender {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncHTTPSender.class);
+
+    /**
+     * Default maximum number of requests in flight per host.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_HOST = 8;
+
+    /**
+     * Number of hosts the internal thread pool serves at full speed at the same time.
+     */
+    private static final int POOL_HOST_COUNT = 4;
+
+    /**
+     * Idle time (s) after which a thread of the internal pool ends.
+     */
+    private static final long POOL_IDLE_ALIVE_TIME = 60L;
+
+    private static final AtomicInteger POOL_THREAD_COUNT = new AtomicInteger();
+
+    private final HTTPSender sender;
+
+    private final ExecutorService executor;
+
+    private final boolean ownExecutor;
+
+    private final KeyedTaskExecutor hostExecutor;
+
+    /**
+     * Constructor, requests are run by an internal pool of daemon threads, large enough for
+     * four hosts to have maxInFlightPerHost requests in flight each. Further requests wait until a
+     * thread is free.<br>
+     *
+     * @since SDNO 0.5
+     * @param sender Synchronous sender doing the requests
+     * @param maxInFlightPerHost Maximum number of requests in flight per host
+     */
+    public AsyncHTTPSender(HTTPSender sender, int maxInFlightPerHost) {
+        this(sender, createDefaultExecutor(maxInFlightPerHost), maxInFlightPerHost, true);
+    }
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param sender Synchronous sender doing the requests
+     * @param executor Executor running the requests
+     * @param maxInFlightPerHost Maximum number of requests in flight per host
+     */
+    public AsyncHTTPSender(HTTPSender sender, ExecutorService executor, int maxInFlightPerHost) {
+        this(sender, executor, maxInFlightPerHost, false);
+    }
+
+    private AsyncHTTPSender(HTTPSender sender, ExecutorService executor, int maxInFlightPerHost,
+            boolean ownExecutor) {
+        this.sender = sender;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.hostExecutor = new KeyedTaskExecutor(executor, maxInFlightPerHost);
+    }
+
+    /**
+     * @return Returns the synchronous sender.
+     */
+    public HTTPSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Asynchronous version of {@link HTTPSender#restInvoke(String, String, String, Map)}.<br>
+     *
+     * @param urlStr URL
+     * @param body message body
+     * @param actionInfo Action info
+     * @param authInfo Authentication info
+     * @param callback Callback notified on completion, can be null
+     * @return Future of the HTTP response message
+     * @since SDNO 0.5
+     */
+    public Future<HTTPReturnMessage> restInvoke(final String urlStr, final String body, final String actionInfo,
+            final Map<String, String> authInfo, final HTTPResponseCallback callback) {
+        return hostExecutor.submit(getHostKey(urlStr), new Callable<HTTPReturnMessage>() {
+
+            @Override
+            public HTTPReturnMessage call() {
+                return complete(callback, sender.restInvoke(urlStr, body, actionInfo, authInfo));
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link HTTPSender#restInvoke(HTTPRequestMessage, HTTPRequestMessage)}
+     * .<br>
+     *
+     * @param authReq Authentication request
+     * @param request Request to be sent after authentication
+     * @param callback Callback notified on completion, can be null
+     * @return Future of the HTTP response message
+     * @since SDNO 0.5
+     */
+    public Future<HTTPReturnMessage> restInvoke(final HTTPRequestMessage authReq, final HTTPRequestMessage request,
+            final HTTPResponseCallback callback) {
+        return hostExecutor.submit(getHostKey(request.getUrl()), new Callable<HTTPReturnMessage>() {
+
+            @Override
+            public HTTPReturnMessage call() {
+                return complete(callback, sender.restInvoke(authReq, request));
+            }
+        });
+    }
+
+    /**
+     * Send a batch of requests and wait until all of them are done. The requests run in parallel,
+     * at most maxInFlightPerHost at a time per host.<br>
+     *
+     * @param requests Requests to be sent, the body can be pre-encoded
+     * @param authInfo Authentication info used by all the requests
+     * @return HTTP response messages in the order of the requests
+     * @since SDNO 0.5
+     */
+    public List<HTTPReturnMessage> restInvokeBatch(List<HTTPRequestMessage> requests,
+            final Map<String, String> authInfo) {
+        List<Future<HTTPReturnMessage>> futures = new ArrayList<Future<HTTPReturnMessage>>(requests.size());
+        for(final HTTPRequestMessage request : requests) {
+            futures.add(hostExecutor.submit(getHostKey(request.getUrl()), new Callable<HTTPReturnMessage>() {
+
+                @Override
+                public HTTPReturnMessage call() {
+                    return sender.restInvoke(request, authInfo);
+                }
+            }));
+        }
+        return collect(futures);
+    }
+
+    /**
+     * Send a batch of requests after authentication and wait until all of them are done. All the
+     * requests share one token, taken from the token cache of the sender if it has one, so
+     * authentication is done once for the whole batch. The requests run in parallel, at most
+     * maxInFlightPerHost at a time per host.<br>
+     *
+     * @param authReq Authentication request
+     * @param requests Requests to be sent after authentication
+     * @return HTTP response messages in the order of the requests
+     * @since SDNO 0.5
+     */
+    public List<HTTPReturnMessage> restInvokeBatch(final HTTPRequestMessage authReq,
+            List<HTTPRequestMessage> requests) {
+        final TokenCache cache = (sender.getTokenCache() != null) ? sender.getTokenCache() : new TokenCache();
+        List<Future<HTTPReturnMessage>> futures = new ArrayList<Future<HTTPReturnMessage>>(requests.size());
+        for(final HTTPRequestMessage request : requests) {
+            futures.add(hostExecutor.submit(getHostKey(request.getUrl()), new Callable<HTTPReturnMessage>() {
+
+                @Override
+                public HTTPReturnMessage call() {
+                    return sender.restInvoke(authReq, request, cache);
+                }
+            }));
+        }
+        return collect(futures);
+    }
+
+    /**
+     * Get the number of requests in flight to the host of the URL.<br>
+     *
+     * @param urlStr URL
+     * @return Number of requests in flight
+     * @since SDNO 0.5
+     */
+    public int getInFlightCount(String urlStr) {
+        return hostExecutor.getRunningCount(getHostKey(urlStr));
+    }
+
+    /**
+     * Shut down the internal thread pool, an executor passed in by the caller is left running.<br>
+     *
+     * @since SDNO 0.5
+     */
+    public void shutdown() {
+        if(ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService createDefaultExecutor(int maxInFlightPerHost) {
+        if(maxInFlightPerHost <= 0) {
+            throw new IllegalArgumentException("maxInFlightPerHost must be positive");
+        }
+        ThreadFactory threadFactory = new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "AsyncHTTPSender-" + POOL_THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        int threadCount = Math.min(maxInFlightPerHost, Integer.MAX_VALUE / POOL_HOST_COUNT) * POOL_HOST_COUNT;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, POOL_IDLE_ALIVE_TIME,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static List<HTTPReturnMessage> collect(List<Future<HTTPReturnMessage>> futures) {
+        List<HTTPReturnMessage> responses = new ArrayList<HTTPReturnMessage>(futures.size());
+        boolean interrupted = false;
+        for(Future<HTTPReturnMessage> future : futures) {
+            if(interrupted) {
+                future.cancel(true);
+                responses.add(getFailedResponse());
+                continue;
+            }
+
+            try {
+                responses.add(future.get());
+            } catch(InterruptedException e) {
+                LOGGER.warn("AsyncHTTPSender::restInvokeBatch interrupted! ", e);
+                interrupted = true;
+                future.cancel(true);
+                responses.add(getFailedResponse());
+            } catch(ExecutionException e) {
+                LOGGER.warn("AsyncHTTPSender::restInvokeBatch error! ", e);
+                responses.add(getFailedResponse());
+            }
+        }
+
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return responses;
+    }
+
+    private static HTTPReturnMessage getFailedResponse() {
+        HTTPReturnMessage response = new HTTPReturnMessage();
+        response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        response.setBody("\"AsyncHTTPSender::restInvokeBatch error! \"");
+        return response;
+    }
+
+    private static HTTPReturnMessage complete(HTTPResponseCallback callback, HTTPReturnMessage response) {
+        if(callback != null) {
+            callback.onComplete(response);
+        }
+        return response;
+    }
+
+    private static String getHostKey(String urlStr) {
+        try {
+            return HttpConnectionPool.getHostKey(new URL(urlStr));
+        } catch(MalformedURLException e) {
+            // Sending will fail the same way, just group the request by itself.
+            return String.valueOf(urlStr);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-host circuit breaker used by HTTPSender.<br>
+ * <p>
+ * After a number of consecutive failures the circuit of the host opens and requests fail at once
+ * without using a connection. When the open time has passed, one trial request is let through
+ * (half-open), and the circuit closes again if it succeeds. The breaker also records the latency
+ * of successful requests per host and action, so that the read timeout of an action can follow
+ * its real response time instead of the configured maximum, without a slow action of the host
+ * inheriting the timeout of a fast one.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-5
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * Status of the response returned when the circuit of the host is open. It is outside the
+     * range of HTTP status codes so it cannot be confused with a response of the server.
+     */
+    public static final int SC_CIRCUIT_OPEN = 600;
+
+    /**
+     * Default number of consecutive failures which opens the circuit.
+     */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /**
+     * Default time (ms) the circuit stays open before a trial request is let through.
+     */
+    public static final long DEFAULT_OPEN_TIME = 30000L;
+
+    private static final int LATENCY_WINDOW = 100;
+
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private static final double LATENCY_PERCENTILE = 0.99;
+
+    private static final int TIMEOUT_MULTIPLIER = 4;
+
+    private static final int MIN_READ_TIMEOUT = 5000;
+
+    /**
+     * State of the circuit of a host.<br>
+     *
+     * @author
+     * @version SDNO 0.5 2017-4-5
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openTime;
+
+    private boolean adaptiveReadTimeout = true;
+
+    private final ConcurrentMap<String, HostState> hostStates = new ConcurrentHashMap<String, HostState>();
+
+    private final ConcurrentMap<String, LatencyStats> latencyStats = new ConcurrentHashMap<String, LatencyStats>();
+
+    /**
+     * Constructor with default thresholds.<br>
+     *
+     * @since SDNO 0.5
+     */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_TIME);
+    }
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param failureThreshold Number of consecutive failures which opens the circuit
+     * @param openTime Time in milliseconds the circuit stays open
+     */
+    public CircuitBreaker(int failureThreshold, long openTime) {
+        if(failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openTime = openTime;
+    }
+
+    /**
+     * Set whether the read timeout follows the latency of the host and action. When enabled, the
+     * read timeout is four times the 99th percentile of the recent latencies, but not less than 5 s
+     * and not more than the configured read timeout. Default is true.<br>
+     *
+     * @param adaptiveReadTimeout Adapt the read timeout or not
+     * @since SDNO 0.5
+     */
+    public void setAdaptiveReadTimeout(boolean adaptiveReadTimeout) {
+        this.adaptiveReadTimeout = adaptiveReadTimeout;
+    }
+
+    /**
+     * Check whether a request to the host in the URL may be sent. In half-open state only one
+     * trial request is allowed until its result is recorded.<br>
+     *
+     * @param url Request URL
+     * @return true if the request may be sent, false if it must fail fast
+     * @since SDNO 0.5
+     */
+    public boolean allowRequest(URL url) {
+        return getHostState(url).allowRequest();
+    }
+
+    /**
+     * Record a successful request.<br>
+     *
+     * @param url Request URL
+     * @param action HTTP method of the request
+     * @param latency Time in milliseconds until the response code was received
+     * @since SDNO 0.5
+     */
+    public void onSuccess(URL url, String action, long latency) {
+        getHostState(url).onSuccess();
+        getLatencyStats(url, action).add(latency);
+    }
+
+    /**
+     * Record a failed request.<br>
+     *
+     * @param url Request URL
+     * @since SDNO 0.5
+     */
+    public void onFailure(URL url) {
+        getHostState(url).onFailure();
+    }
+
+    /**
+     * Get the circuit state of the host in the URL.<br>
+     *
+     * @param url Request URL
+     * @return Circuit state
+     * @since SDNO 0.5
+     */
+    public State getState(URL url) {
+        HostState hostState = hostStates.get(HttpConnectionPool.getHostKey(url));
+        return (hostState == null) ? State.CLOSED : hostState.getState();
+    }
+
+    /**
+     * Get the read timeout for a request of the action to the host in the URL.<br>
+     *
+     * @param url Request URL
+     * @param action HTTP method of the request
+     * @param maxReadTimeout Configured read timeout in milliseconds
+     * @return Read timeout in milliseconds
+     * @since SDNO 0.5
+     */
+    public int getReadTimeout(URL url, String action, int maxReadTimeout) {
+        LatencyStats stats = latencyStats.get(getStatsKey(url, action));
+        if(!adaptiveReadTimeout || (stats == null)) {
+            return maxReadTimeout;
+        }
+
+        long percentile = stats.getPercentile(LATENCY_PERCENTILE);
+        if(percentile < 0) {
+            return maxReadTimeout;
+        }
+        long timeout = Math.max(percentile * TIMEOUT_MULTIPLIER, MIN_READ_TIMEOUT);
+        return (maxReadTimeout <= 0) ? (int)timeout : (int)Math.min(timeout, maxReadTimeout);
+    }
+
+    private HostState getHostState(URL url) {
+        String hostKey = HttpConnectionPool.getHostKey(url);
+        HostState hostState = hostStates.get(hostKey);
+        if(hostState == null) {
+            HostState newState = new HostState(hostKey);
+            hostState = hostStates.putIfAbsent(hostKey, newState);
+            if(hostState == null) {
+                hostState = newState;
+            }
+        }
+        return hostState;
+    }
+
+    private LatencyStats getLatencyStats(URL url, String action) {
+        String key = getStatsKey(url, action);
+        LatencyStats stats = latencyStats.get(key);
+        if(stats == null) {
+            LatencyStats newStats = new LatencyStats();
+            stats = latencyStats.putIfAbsent(key, newStats);
+            if(stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    private static String getStatsKey(URL url, String action) {
+        return HttpConnectionPool.getHostKey(url) + " " + action;
+    }
+
+    private class HostState {
+
+        private final String hostKey;
+
+        private State state = State.CLOSED;
+
+        private int failures;
+
+        private long openedAt;
+
+        private boolean trialRunning;
+
+        HostState(String hostKey) {
+            this.hostKey = hostKey;
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        synchronized boolean allowRequest() {
+            if(state == State.CLOSED) {
+                return true;
+            }
+
+            if((state == State.OPEN) && (System.currentTimeMillis() - openedAt >= openTime)) {
+                LOGGER.info("Circuit of " + hostKey + " is half open.");
+                state = State.HALF_OPEN;
+                trialRunning = false;
+            }
+            if((state == State.HALF_OPEN) && !trialRunning) {
+                trialRunning = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void onSuccess() {
+            if(state != State.CLOSED) {
+                LOGGER.info("Circuit of " + hostKey + " is closed.");
+            }
+            state = State.CLOSED;
+            failures = 0;
+            trialRunning = false;
+        }
+
+        synchronized void onFailure() {
+            failures++;
+            trialRunning = false;
+            if((state == State.HALF_OPEN) || ((state == State.CLOSED) && (failures >= failureThreshold))) {
+                LOGGER.warn("Circuit of " + hostKey + " is open after " + failures + " failures.");
+                state = State.OPEN;
+                openedAt = System.currentTimeMillis();
+            }
+        }
+
+    }
+
+    private static class LatencyStats {
+
+        private final long[] latencies = new long[LATENCY_WINDOW];
+
+        private int count;
+
+        private int index;
+
+        synchronized void add(long latency) {
+            latencies[index] = latency;
+            index = (index + 1) % LATENCY_WINDOW;
+            count = Math.min(count + 1, LATENCY_WINDOW);
+        }
+
+        synchronized long getPercentile(double percentile) {
+            if(count < MIN_LATENCY_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted[(int)Math.ceil(percentile * count) - 1];
+        }
+    }
+}
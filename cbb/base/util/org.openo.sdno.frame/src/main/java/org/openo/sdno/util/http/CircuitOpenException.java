@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+
+/**
+ * Exception thrown when a request fails fast because the circuit of its host is open.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-5
+ */
+public class CircuitOpenException extends ServiceException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param msg Exception message
+     */
+    public CircuitOpenException(String msg) {
+        super(msg);
+        super.setHttpCode(CircuitBreaker.SC_CIRCUIT_OPEN);
+    }
+}
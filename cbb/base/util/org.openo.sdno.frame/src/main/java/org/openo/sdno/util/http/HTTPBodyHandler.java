@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.io.IOException;
+
+/**
+ * Handler receiving the response body of HTTPSender chunk by chunk.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-27
+ */
+public interface HTTPBodyHandler {
+
+    /**
+     * Called for every chunk of the response body, the array is reused after the call returns.<br>
+     *
+     * @param chunk Buffer holding the chunk
+     * @param offset Offset of the chunk in the buffer
+     * @param length Length of the chunk
+     * @throws IOException if the handler fails, reading of the body is stopped
+     * @since SDNO 0.5
+     */
+    void onChunk(char[] chunk, int offset, int length) throws IOException;
+}
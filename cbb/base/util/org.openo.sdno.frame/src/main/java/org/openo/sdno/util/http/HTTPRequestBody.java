@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Pre-encoded body of a HTTP request.<br>
+ * <p>
+ * The body is written to the connection as it is, without converting it from a string. The same
+ * body object can be sent any number of times, for example to push one configuration to many
+ * devices. Subclasses can stream a body from another source, the writeTo method may be called
+ * more than once when a request is resent.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-29
+ */
+public abstract class HTTPRequestBody {
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    /**
+     * Get the length of the body in bytes.<br>
+     *
+     * @return Body length, -1 if not known in advance
+     * @since SDNO 0.5
+     */
+    public abstract long getLength();
+
+    /**
+     * Write the body to the stream.<br>
+     *
+     * @param os Output stream of the connection
+     * @throws IOException if writing fails
+     * @since SDNO 0.5
+     */
+    public abstract void writeTo(OutputStream os) throws IOException;
+
+    /**
+     * Create a body from a byte array, the array is not copied and must not be changed while it is
+     * in use.<br>
+     *
+     * @param bytes Body bytes
+     * @return Request body
+     * @since SDNO 0.5
+     */
+    public static HTTPRequestBody create(final byte[] bytes) {
+        return new HTTPRequestBody() {
+
+            @Override
+            public long getLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream os) throws IOException {
+                os.write(bytes);
+            }
+        };
+    }
+
+    /**
+     * Create a body from the remaining bytes of a buffer. The buffer is not copied and its
+     * position is not changed.<br>
+     *
+     * @param buffer Body buffer
+     * @return Request body
+     * @since SDNO 0.5
+     */
+    public static HTTPRequestBody create(ByteBuffer buffer) {
+        final ByteBuffer body = buffer.slice();
+        return new HTTPRequestBody() {
+
+            @Override
+            public long getLength() {
+                return body.remaining();
+            }
+
+            @Override
+            public void writeTo(OutputStream os) throws IOException {
+                if(body.hasArray()) {
+                    os.write(body.array(), body.arrayOffset() + body.position(), body.remaining());
+                    return;
+                }
+
+                ByteBuffer source = body.duplicate();
+                byte[] chunk = new byte[Math.min(COPY_BUFFER_SIZE, source.remaining())];
+                while(source.hasRemaining()) {
+                    int count = Math.min(chunk.length, source.remaining());
+                    source.get(chunk, 0, count);
+                    os.write(chunk, 0, count);
+                }
+            }
+        };
+    }
+}
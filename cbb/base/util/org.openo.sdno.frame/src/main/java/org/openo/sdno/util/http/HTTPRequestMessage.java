@@ -36,6 +36,11 @@ public class HTTPRequestMessage {
      */
     private String body = "";
 
+    /**
+     * Pre-encoded HTTP content, sent instead of body when set.
+     */
+    private HTTPRequestBody requestBody;
+
     /**
      * HTTP operation type.
      */
@@ -64,6 +69,20 @@ public class HTTPRequestMessage {
         this.action = action.toUpperCase(Locale.getDefault());
     }
 
+    /**
+     * Constructor with pre-encoded body.<br>
+     * 
+     * @since SDNO 0.5
+     * @param url URL
+     * @param requestBody Pre-encoded message body
+     * @param action Operation type, like GET, POST, PUT, DEL and so on.
+     */
+    public HTTPRequestMessage(String url, HTTPRequestBody requestBody, String action) {
+        this.url = url;
+        this.requestBody = requestBody;
+        this.action = action.toUpperCase(Locale.getDefault());
+    }
+
     /**
      * @return Returns the url.
      */
@@ -92,6 +111,20 @@ public class HTTPRequestMessage {
         this.body = body;
     }
 
+    /**
+     * @return Returns the requestBody.
+     */
+    public HTTPRequestBody getRequestBody() {
+        return requestBody;
+    }
+
+    /**
+     * @param requestBody The pre-encoded body to set, it is sent instead of the string body.
+     */
+    public void setRequestBody(HTTPRequestBody requestBody) {
+        this.requestBody = requestBody;
+    }
+
     /**
      * @return Returns the action.
      */
@@ -18,16 +18,24 @@ package org.openo.sdno.util.http;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.text.Normalizer;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TimeZone;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
@@ -40,6 +48,8 @@ import org.apache.commons.io.LineIterator;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.ssl.SSLUtil;
+import org.openo.sdno.util.metrics.RequestMetrics;
+import org.openo.sdno.util.metrics.RequestMetricsRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,8 +82,30 @@ public class HTTPSender {
 
     private SSLContext sslContext = null;
 
+    private HttpConnectionPool connectionPool = null;
+
+    private TokenCache tokenCache = null;
+
+    private CircuitBreaker circuitBreaker = null;
+
+    private RequestMetricsRecorder metricsRecorder = RequestMetrics.getInstance();
+
+    private boolean streamNormalization = true;
+
+    private boolean acceptGzip = false;
+
+    private int gzipRequestThreshold = -1;
+
+    private TimeZone expiredDateTimeZone = TimeZone.getDefault();
+
     protected static final String ACCESS_TOKEN = "X-ACCESS-TOKEN";
 
+    private static final String EXPIRED_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private static final String GZIP_ENCODING = "gzip";
+
     static {
         HttpsURLConnection.setDefaultHostnameVerifier(new HostnameVerifier() {
 
@@ -141,11 +173,127 @@ public class HTTPSender {
         this.readTimeout = readTimeout;
     }
 
+    /**
+     * Enable the keep-alive connection pool mode. All the requests of this sender, including
+     * authentication and token requests, will reuse connections and TLS sessions of the pool. The
+     * pool can be shared by several senders.<br>
+     * 
+     * @param connectionPool Connection pool, null to disable the pool mode
+     * @since SDNO 0.5
+     */
+    public void setConnectionPool(HttpConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * @return Returns the connectionPool.
+     */
+    public HttpConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * Enable the token cache. restInvoke with authentication request then reuses the token until
+     * it expires or is rejected with 401, and getV3Token returns the cached token. The cache can
+     * be shared by several senders.<br>
+     * 
+     * @param tokenCache Token cache, null to authenticate on every call
+     * @since SDNO 0.5
+     */
+    public void setTokenCache(TokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
+    /**
+     * @return Returns the tokenCache.
+     */
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    /**
+     * Enable the per-host circuit breaker. Requests to a host whose circuit is open fail at once
+     * with status CircuitBreaker.SC_CIRCUIT_OPEN, and the read timeout follows the latency of the
+     * host and action. The breaker can be shared by several senders.<br>
+     * 
+     * @param circuitBreaker Circuit breaker, null to disable it
+     * @since SDNO 0.5
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @return Returns the circuitBreaker.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Set the recorder of request counts, latencies and body sizes. Default is the shared
+     * RequestMetrics instance.<br>
+     * 
+     * @param metricsRecorder Metrics recorder, null to disable metrics
+     * @since SDNO 0.5
+     */
+    public void setMetricsRecorder(RequestMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    /**
+     * Set whether the body of streamed responses is normalized to NFKC, as restInvoke does for
+     * the whole body. Default is true.<br>
+     * 
+     * @param streamNormalization Normalize streamed response body or not
+     * @since SDNO 0.5
+     */
+    public void setStreamNormalization(boolean streamNormalization) {
+        this.streamNormalization = streamNormalization;
+    }
+
+    /**
+     * Set whether the server is allowed to compress responses with gzip. Compressed responses
+     * are inflated while they are read. Default is false.<br>
+     * 
+     * @param acceptGzip Send Accept-Encoding: gzip or not
+     * @since SDNO 0.5
+     */
+    public void setAcceptGzip(boolean acceptGzip) {
+        this.acceptGzip = acceptGzip;
+    }
+
+    /**
+     * Set the time zone of the expiredDate of SNC authentication responses, which carries no zone
+     * itself. Default is the time zone of this host. An expiry which is not in the future is
+     * ignored and the default time to live of the token cache applies.<br>
+     * 
+     * @param expiredDateTimeZone Time zone of the controller
+     * @since SDNO 0.5
+     */
+    public void setExpiredDateTimeZone(TimeZone expiredDateTimeZone) {
+        this.expiredDateTimeZone = expiredDateTimeZone;
+    }
+
+    /**
+     * Set the body size in bytes from which request bodies are compressed with gzip. Bodies of
+     * unknown length are always compressed when it is enabled. The server must accept
+     * Content-Encoding: gzip. Default is -1, which means request bodies are never compressed.<br>
+     * 
+     * @param gzipRequestThreshold Minimum body size to compress, negative to disable
+     * @since SDNO 0.5
+     */
+    public void setGzipRequestThreshold(int gzipRequestThreshold) {
+        this.gzipRequestThreshold = gzipRequestThreshold;
+    }
+
     /**
      * Send message after authentication.<br>
      * 1. Send authentication messages to Server. <br>
      * 2. After the success of the certification, send message.<br>
      * 3. After receiving the response message, close the HTTP connection.<br>
+     * When the token cache is enabled, step 1 is skipped while the cached token is valid, and the
+     * request is sent once more with a new token if the server returns 401.<br>
      * 
      * @param authReq Authentication request
      * @param request Request to be sent after authentication
@@ -153,6 +301,10 @@ public class HTTPSender {
      * @since SDNO 0.5
      */
     public HTTPReturnMessage restInvoke(HTTPRequestMessage authReq, HTTPRequestMessage request) {
+        if(tokenCache != null) {
+            return restInvoke(authReq, request, tokenCache);
+        }
+
         HTTPReturnMessage authResponse = new HTTPReturnMessage();
         HTTPReturnMessage response = new HTTPReturnMessage();
         HttpURLConnection authConn = null;
@@ -162,6 +314,10 @@ public class HTTPSender {
         try {
             // Analysis token_id, add the response
             authConn = sendMsg(authReq, null, authResponse, true);
+            // The token is already read, free the connection before the request takes another
+            // one of the same host, or a pool with no free connection left would deadlock.
+            close(authConn);
+            authConn = null;
             if(authResponse.getStatus() == HttpStatus.SC_OK) {
                 Map<String, String> tokenMap = new HashMap<String, String>();
                 tokenMap.put(ACCESS_TOKEN, authResponse.getToken());
@@ -170,10 +326,10 @@ public class HTTPSender {
                 LOGGER.info("HttpSender::restInvokeSNC status:" + response.getStatus());
                 // success
                 if((response.getStatus() < HttpStatus.SC_BAD_REQUEST) && (response.getStatus() >= HttpStatus.SC_OK)) {
-                    br = new BufferedReader(new InputStreamReader(conn.getInputStream()));
+                    br = new BufferedReader(new InputStreamReader(getResponseStream(conn)));
                 } else {
                     // fail
-                    br = new BufferedReader(new InputStreamReader(conn.getErrorStream()));
+                    br = new BufferedReader(new InputStreamReader(getErrorResponseStream(conn)));
                     LOGGER.warn("HttpSender::restInvokeSNC send failed!");
                 }
                 processReturnMsg(response, br);
@@ -186,7 +342,7 @@ public class HTTPSender {
             // InputStreamReader(conn.getErrorStream())'
             // will generate null pointer exception.
             if(response.getStatus() == 0) {
-                response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+                response.setStatus(getFailureStatus(e));
             }
             response.setBody("\"HttpSender::restInvokeSNC error! \"");
             LOGGER.warn("HttpSender::restInvokeSNC error! ", e);
@@ -198,6 +354,112 @@ public class HTTPSender {
         return response;
     }
 
+    /**
+     * Send message with a token of the given cache, authenticating only when the cache has no
+     * valid token. Used to share one token among several requests, like the items of a batch.<br>
+     * 
+     * @param authReq Authentication request
+     * @param request Request to be sent after authentication
+     * @param cache Token cache
+     * @return HTTP response message.
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage restInvoke(final HTTPRequestMessage authReq, HTTPRequestMessage request,
+            TokenCache cache) {
+        String cacheKey = TokenCache.buildKey(authReq.getUrl(), authReq.getAction(), authReq.getBody());
+        TokenCache.TokenLoader loader = new TokenCache.TokenLoader() {
+
+            @Override
+            public TokenCache.Token load() throws ServiceException {
+                return authenticate(authReq);
+            }
+        };
+
+        HTTPReturnMessage response = new HTTPReturnMessage();
+        try {
+            String token = cache.getToken(cacheKey, loader);
+            sendWithToken(request, token, response);
+            if(response.getStatus() == HttpStatus.SC_UNAUTHORIZED) {
+                LOGGER.info("HttpSender::restInvokeSNC token rejected, authenticate again.");
+                cache.invalidate(cacheKey, token);
+                token = cache.getToken(cacheKey, loader);
+                response = new HTTPReturnMessage();
+                sendWithToken(request, token, response);
+            }
+        } catch(IOException | NoSuchProviderException | NoSuchAlgorithmException | ServiceException e) {
+            if(response.getStatus() == 0) {
+                response.setStatus(getFailureStatus(e));
+            }
+            response.setBody("\"HttpSender::restInvokeSNC error! \"");
+            LOGGER.warn("HttpSender::restInvokeSNC error! ", e);
+        }
+        return response;
+    }
+
+    private TokenCache.Token authenticate(HTTPRequestMessage authReq) throws ServiceException {
+        HTTPReturnMessage authResponse = new HTTPReturnMessage();
+        HttpURLConnection authConn = null;
+        try {
+            authConn = sendMsg(authReq, null, authResponse, true);
+        } catch(IOException | NoSuchProviderException | NoSuchAlgorithmException e) {
+            throw new ServiceException("restInvokeSNC auth failed!", e);
+        } finally {
+            close(authConn);
+        }
+
+        if((authResponse.getStatus() != HttpStatus.SC_OK) || (authResponse.getToken() == null)
+                || authResponse.getToken().isEmpty()) {
+            LOGGER.error("HttpSender::restInvokeSNC auth failed!");
+            throw new ServiceException("restInvokeSNC auth failed! error code is :" + authResponse.getStatus());
+        }
+        return new TokenCache.Token(authResponse.getToken(), getExpireTime(authResponse.getBody()));
+    }
+
+    private void sendWithToken(HTTPRequestMessage request, String token, HTTPReturnMessage response)
+            throws IOException, NoSuchProviderException, NoSuchAlgorithmException, ServiceException {
+        Map<String, String> tokenMap = new HashMap<String, String>();
+        tokenMap.put(ACCESS_TOKEN, token);
+
+        HttpURLConnection conn = null;
+        BufferedReader br = null;
+        try {
+            conn = sendMsg(request, tokenMap, response, false);
+            LOGGER.info("HttpSender::restInvokeSNC status:" + response.getStatus());
+            if((response.getStatus() < HttpStatus.SC_BAD_REQUEST) && (response.getStatus() >= HttpStatus.SC_OK)) {
+                br = new BufferedReader(new InputStreamReader(getResponseStream(conn)));
+            } else {
+                br = new BufferedReader(new InputStreamReader(getErrorResponseStream(conn)));
+                LOGGER.warn("HttpSender::restInvokeSNC send failed!");
+            }
+            processReturnMsg(response, br);
+        } finally {
+            close(conn);
+            IOUtils.closeQuietly(br);
+        }
+    }
+
+    /**
+     * Get the expire time from the expiredDate of SNC authentication response, returns 0 if it is
+     * not present.
+     */
+    private long getExpireTime(String authBody) {
+        try {
+            Map<String, Object> contentMap = JsonUtil.fromJson(authBody, Map.class);
+            Object data = (contentMap == null) ? null : contentMap.get("data");
+            if(data instanceof Map) {
+                Object expiredDate = ((Map<?, ?>)data).get("expiredDate");
+                if(expiredDate != null) {
+                    SimpleDateFormat format = new SimpleDateFormat(EXPIRED_DATE_FORMAT);
+                    format.setTimeZone(expiredDateTimeZone);
+                    return format.parse(expiredDate.toString()).getTime();
+                }
+            }
+        } catch(IllegalArgumentException | ParseException e) {
+            LOGGER.warn("HttpSender::parse token expiredDate failed! ", e);
+        }
+        return 0;
+    }
+
     /**
      * Normal HTTP send.<br>
      * 
@@ -209,21 +471,33 @@ public class HTTPSender {
      * @since SDNO 0.5
      */
     public HTTPReturnMessage restInvoke(String urlStr, String body, String actionInfo, Map<String, String> authInfo) {
+        return restInvoke(new HTTPRequestMessage(urlStr, body, actionInfo), authInfo);
+    }
+
+    /**
+     * Normal HTTP send of a request message, whose body can be pre-encoded.<br>
+     * 
+     * @param request Request message
+     * @param authInfo Authentication info
+     * @return HTTP response message.
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage restInvoke(HTTPRequestMessage request, Map<String, String> authInfo) {
         HTTPReturnMessage msg = new HTTPReturnMessage();
         HttpURLConnection conn = null;
         BufferedReader br = null;
 
         try {
-            conn = sendMsg(new HTTPRequestMessage(urlStr, body, actionInfo), authInfo, msg, false);
+            conn = sendMsg(request, authInfo, msg, false);
             LOGGER.info("status:" + msg.getStatus());
             // success
             if((msg.getStatus() < HttpStatus.SC_BAD_REQUEST) && (msg.getStatus() >= HttpStatus.SC_OK)) {
-                br = new BufferedReader(new InputStreamReader(conn.getInputStream()));
+                br = new BufferedReader(new InputStreamReader(getResponseStream(conn)));
                 String xToken = conn.getHeaderField("X-subject-Token");
                 msg.setToken(xToken);
             } else {
                 // fail
-                br = new BufferedReader(new InputStreamReader(conn.getErrorStream()));
+                br = new BufferedReader(new InputStreamReader(getErrorResponseStream(conn)));
             }
 
             processReturnMsg(msg, br);
@@ -241,6 +515,83 @@ public class HTTPSender {
         return msg;
     }
 
+    /**
+     * HTTP send whose response body is returned as a stream instead of being read into memory.
+     * The returned response must be closed by the caller.<br>
+     * 
+     * @param urlStr URL
+     * @param body message body
+     * @param actionInfo Action info
+     * @param authInfo Authentication info
+     * @return HTTP response with body stream.
+     * @throws ServiceException if sending the request fails
+     * @since SDNO 0.5
+     */
+    public HTTPStreamResponse restInvokeStream(String urlStr, String body, String actionInfo,
+            Map<String, String> authInfo) throws ServiceException {
+        HTTPReturnMessage msg = new HTTPReturnMessage();
+        HttpURLConnection conn = null;
+
+        try {
+            conn = sendMsg(new HTTPRequestMessage(urlStr, body, actionInfo), authInfo, msg, false);
+            LOGGER.info("status:" + msg.getStatus());
+            InputStream in;
+            if((msg.getStatus() < HttpStatus.SC_BAD_REQUEST) && (msg.getStatus() >= HttpStatus.SC_OK)) {
+                in = getResponseStream(conn);
+                msg.setToken(conn.getHeaderField("X-subject-Token"));
+            } else {
+                in = getErrorResponseStream(conn);
+            }
+            return new HTTPStreamResponse(this, conn, msg.getStatus(), msg.getToken(), in, streamNormalization);
+        } catch(IOException | NoSuchProviderException | NoSuchAlgorithmException e) {
+            close(conn);
+            LOGGER.warn("HttpSender::restInvokeStream error! ", e);
+            throw new ServiceException("HttpSender::restInvokeStream error! ", e);
+        }
+    }
+
+    /**
+     * HTTP send whose response body is handed to the handler chunk by chunk instead of being set
+     * to the returned message.<br>
+     * 
+     * @param urlStr URL
+     * @param body message body
+     * @param actionInfo Action info
+     * @param authInfo Authentication info
+     * @param handler Handler of the response body
+     * @return HTTP response message without body.
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage restInvoke(String urlStr, String body, String actionInfo, Map<String, String> authInfo,
+            HTTPBodyHandler handler) {
+        HTTPReturnMessage msg = new HTTPReturnMessage();
+        HTTPStreamResponse response = null;
+        Reader reader = null;
+
+        try {
+            response = restInvokeStream(urlStr, body, actionInfo, authInfo);
+            msg.setStatus(response.getStatus());
+            msg.setToken(response.getToken());
+
+            reader = response.getReader();
+            char[] buffer = new char[STREAM_BUFFER_SIZE];
+            int count;
+            while((count = reader.read(buffer)) >= 0) {
+                handler.onChunk(buffer, 0, count);
+            }
+        } catch(IOException | ServiceException e) {
+            msg.setBody("\"HttpSender::restInvoke error! \"");
+            LOGGER.warn("HttpSender::restInvoke error! ", e);
+        } finally {
+            IOUtils.closeQuietly(reader);
+            if(response != null) {
+                response.close();
+            }
+        }
+
+        return msg;
+    }
+
     protected void processReturnMsg(HTTPReturnMessage msg, BufferedReader br) {
         LineIterator lineIter = new LineIterator(br);
         StringBuilder outputBuilder = new StringBuilder();
@@ -252,6 +603,7 @@ public class HTTPSender {
 
     /**
      * Send input message to input URL, and get X-subject-Token from response message's header.<br>
+     * When the token cache is enabled, the cached token is returned while it is valid.<br>
      * 
      * @param urlStr URL
      * @param body Message body
@@ -259,7 +611,30 @@ public class HTTPSender {
      * @return Token.
      * @since SDNO 0.5
      */
-    public String getV3Token(String urlStr, String body, String actionInfo) {
+    public String getV3Token(final String urlStr, final String body, final String actionInfo) {
+        if(tokenCache == null) {
+            return requestV3Token(urlStr, body, actionInfo);
+        }
+
+        try {
+            return tokenCache.getToken(TokenCache.buildKey(urlStr, actionInfo, body), new TokenCache.TokenLoader() {
+
+                @Override
+                public TokenCache.Token load() throws ServiceException {
+                    String token = requestV3Token(urlStr, body, actionInfo);
+                    if((token == null) || token.isEmpty()) {
+                        throw new ServiceException("getV3Token failed!");
+                    }
+                    return new TokenCache.Token(token, 0);
+                }
+            });
+        } catch(ServiceException e) {
+            LOGGER.warn("OpenstackProxy::getV3Token error! ", e);
+            return "";
+        }
+    }
+
+    private String requestV3Token(String urlStr, String body, String actionInfo) {
         String token = "";
         HttpURLConnection conn = null;
 
@@ -280,7 +655,12 @@ public class HTTPSender {
     }
 
     protected void close(HttpURLConnection conn) {
-        if(conn != null) {
+        if(conn == null) {
+            return;
+        }
+        if(connectionPool != null) {
+            connectionPool.release(conn);
+        } else {
             conn.disconnect();
         }
     }
@@ -290,11 +670,13 @@ public class HTTPSender {
         URL url = new URL(urlStr);
         HttpURLConnection conn = (HttpURLConnection)url.openConnection();
         conn.setConnectTimeout(connectTimeout);
-        conn.setReadTimeout(readTimeout);
+        conn.setReadTimeout(
+                (circuitBreaker != null) ? circuitBreaker.getReadTimeout(url, actionStr, readTimeout) : readTimeout);
         conn.setRequestMethod(actionStr);
         conn.setRequestProperty("Content-Type", httpContentType);
         if((conn instanceof HttpsURLConnection) && (sslContext != null)) {
-            ((HttpsURLConnection)conn).setSSLSocketFactory(sslContext.getSocketFactory());
+            ((HttpsURLConnection)conn).setSSLSocketFactory((connectionPool != null)
+                    ? connectionPool.getSocketFactory(sslContext) : sslContext.getSocketFactory());
         }
 
         // Make judgments for security login.
@@ -302,6 +684,13 @@ public class HTTPSender {
         if(!httpAccept.isEmpty()) {
             conn.setRequestProperty("Accept", httpAccept);
         }
+        if(acceptGzip) {
+            conn.setRequestProperty("Accept-Encoding", GZIP_ENCODING);
+        }
+
+        if(connectionPool != null) {
+            connectionPool.acquire(conn, connectTimeout);
+        }
         return conn;
     }
 
@@ -309,26 +698,86 @@ public class HTTPSender {
             HTTPReturnMessage response, boolean isAuth)
             throws IOException, NoSuchProviderException, NoSuchAlgorithmException, ServiceException {
         String url = requst.getUrl();
+        URL target = new URL(url);
+        if(circuitBreaker != null) {
+            if(!circuitBreaker.allowRequest(target)) {
+                response.setStatus(CircuitBreaker.SC_CIRCUIT_OPEN);
+                throw new CircuitOpenException("Circuit of " + url + " is open.");
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        HttpURLConnection conn = null;
+        boolean sent = false;
+        try {
+            conn = getHttpURLConnection(url, authInfo, requst.getAction());
+            if(requst.getRequestBody() != null) {
+                sendHttpMsg(requst.getRequestBody(), requst.getAction(), conn);
+            } else {
+                sendHttpMsg(requst.getBody(), requst.getAction(), conn);
+            }
 
-        HttpURLConnection conn = getHttpURLConnection(url, authInfo, requst.getAction());
-        sendHttpMsg(requst.getBody(), requst.getAction(), conn);
+            // 200,201,etc.
+            response.setStatus(conn.getResponseCode());
+            sent = true;
+        } finally {
+            // Also reached by runtime exceptions, so that the permit of the pool is freed and a
+            // half-open circuit does not wait for a trial result forever.
+            if(!sent) {
+                if((conn != null) && (connectionPool != null)) {
+                    connectionPool.discard(conn);
+                }
+                if(circuitBreaker != null) {
+                    circuitBreaker.onFailure(target);
+                }
+                if(metricsRecorder != null) {
+                    metricsRecorder.recordRequest(target, requst.getAction(), 0,
+                            System.currentTimeMillis() - startTime);
+                }
+            }
+        }
 
-        // 200,201,etc.
-        response.setStatus(conn.getResponseCode());
-        // If success, analysis body and get token_id.
-        if(isAuth && (response.getStatus() < HttpStatus.SC_BAD_REQUEST) && (response.getStatus() >= HttpStatus.SC_OK)) {
-            getTokenFromConn(response, conn);
+        try {
+            long latency = System.currentTimeMillis() - startTime;
+            if(circuitBreaker != null) {
+                recordResult(target, requst.getAction(), response.getStatus(), latency);
+            }
+            if(metricsRecorder != null) {
+                metricsRecorder.recordRequest(target, requst.getAction(), response.getStatus(), latency);
+            }
+            // If success, analysis body and get token_id.
+            if(isAuth && (response.getStatus() < HttpStatus.SC_BAD_REQUEST)
+                    && (response.getStatus() >= HttpStatus.SC_OK)) {
+                getTokenFromConn(response, conn);
+            }
+        } catch(RuntimeException e) {
+            close(conn);
+            throw e;
         }
 
         return conn;
     }
 
+    private void recordResult(URL target, String action, int status, long latency) {
+        if((status == HttpStatus.SC_BAD_GATEWAY) || (status == HttpStatus.SC_SERVICE_UNAVAILABLE)
+                || (status == HttpStatus.SC_GATEWAY_TIMEOUT)) {
+            circuitBreaker.onFailure(target);
+        } else {
+            circuitBreaker.onSuccess(target, action, latency);
+        }
+    }
+
+    private int getFailureStatus(Exception e) {
+        return (e instanceof CircuitOpenException) ? CircuitBreaker.SC_CIRCUIT_OPEN
+                : HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
     /**
      * Get token_id, SNC return sample: { "errcode": "sso.login.e0535", "errmsg": "", "data": {
      * "expiredDate":"2015-12-20 04:19:57", "token_id":"" } }
      */
     protected void getTokenFromConn(HTTPReturnMessage response, HttpURLConnection conn) {
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(getResponseStream(conn)))) {
             processReturnMsg(response, br);
             if(response.getBody().isEmpty()) {
                 LOGGER.error("HTTPSender::connecttion getInputStream is empty!");
@@ -349,19 +798,88 @@ public class HTTPSender {
         HttpURLConnection conn = openConnect(action, urlStr);
 
         if((authInfo != null) && !authInfo.isEmpty()) {
-            for(Entry<String, String> entry : authInfo.entrySet()) {
-                conn.setRequestProperty(entry.getKey(), authInfo.get(entry.getKey()));
+            try {
+                for(Entry<String, String> entry : authInfo.entrySet()) {
+                    conn.setRequestProperty(entry.getKey(), authInfo.get(entry.getKey()));
+                }
+            } catch(RuntimeException e) {
+                if(connectionPool != null) {
+                    connectionPool.discard(conn);
+                }
+                throw e;
             }
         }
         return conn;
     }
 
+    /**
+     * Get the body stream of a successful response, inflated if the response is compressed.<br>
+     * 
+     * @param conn Connection whose response code has been read
+     * @return Response body stream
+     * @throws IOException if the stream cannot be opened
+     * @since SDNO 0.5
+     */
+    protected InputStream getResponseStream(HttpURLConnection conn) throws IOException {
+        return decodeResponseStream(conn, conn.getInputStream());
+    }
+
+    /**
+     * Get the body stream of a failed response, inflated if the response is compressed.<br>
+     * 
+     * @param conn Connection whose response code has been read
+     * @return Response body stream, null if the response has no body
+     * @throws IOException if the compressed stream is corrupt
+     * @since SDNO 0.5
+     */
+    protected InputStream getErrorResponseStream(HttpURLConnection conn) throws IOException {
+        return decodeResponseStream(conn, conn.getErrorStream());
+    }
+
+    private InputStream decodeResponseStream(HttpURLConnection conn, InputStream in) throws IOException {
+        if(in == null) {
+            return null;
+        }
+
+        InputStream body = in;
+        if(metricsRecorder != null) {
+            body = new MeteredInputStream(in, metricsRecorder, conn.getURL(), conn.getRequestMethod());
+        }
+        if((conn.getContentLength() == 0) || !GZIP_ENCODING.equalsIgnoreCase(conn.getContentEncoding())) {
+            return body;
+        }
+
+        // 204, 304 and HEAD responses, or an empty chunked body, can carry the header without any
+        // gzip data, which GZIPInputStream would fail to read.
+        PushbackInputStream pushback = new PushbackInputStream(body, 1);
+        int first = pushback.read();
+        if(first < 0) {
+            return pushback;
+        }
+        pushback.unread(first);
+        return new GZIPInputStream(pushback, STREAM_BUFFER_SIZE);
+    }
+
+    private OutputStream getRequestStream(HttpURLConnection conn) throws IOException {
+        OutputStream os = conn.getOutputStream();
+        if(metricsRecorder == null) {
+            return os;
+        }
+        return new MeteredOutputStream(os, metricsRecorder, conn.getURL(), conn.getRequestMethod());
+    }
+
     protected void sendHttpMsg(String body, String action, HttpURLConnection conn) throws ServiceException {
         boolean isSend = checkRequestType(body, action);
         if(isSend) {
+            byte[] bytes = body.getBytes();
+            if(isGzipRequest(bytes.length)) {
+                sendHttpMsg(HTTPRequestBody.create(bytes), action, conn);
+                return;
+            }
+
             conn.setDoOutput(true);
-            try (OutputStream os = conn.getOutputStream()) {
-                os.write(body.getBytes());
+            try (OutputStream os = getRequestStream(conn)) {
+                os.write(bytes);
                 os.flush();
             } catch(IOException e) {
                 LOGGER.error("HttpSender::sendHttpMsg error! ", e);
@@ -370,6 +888,41 @@ public class HTTPSender {
         }
     }
 
+    protected void sendHttpMsg(HTTPRequestBody body, String action, HttpURLConnection conn) throws ServiceException {
+        long length = body.getLength();
+        if((length == 0) || "get".equalsIgnoreCase(action)) {
+            return;
+        }
+
+        boolean gzip = isGzipRequest(length);
+        conn.setDoOutput(true);
+        if(gzip) {
+            conn.setRequestProperty("Content-Encoding", GZIP_ENCODING);
+            conn.setChunkedStreamingMode(0);
+        } else if(length > 0) {
+            conn.setFixedLengthStreamingMode(length);
+        } else {
+            conn.setChunkedStreamingMode(0);
+        }
+        try (OutputStream os = getRequestStream(conn)) {
+            if(gzip) {
+                GZIPOutputStream gzipOs = new GZIPOutputStream(os, STREAM_BUFFER_SIZE);
+                body.writeTo(gzipOs);
+                gzipOs.finish();
+            } else {
+                body.writeTo(os);
+            }
+            os.flush();
+        } catch(IOException e) {
+            LOGGER.error("HttpSender::sendHttpMsg error! ", e);
+            throw new ServiceException("HttpSender::sendHttpMsg error! ", e);
+        }
+    }
+
+    private boolean isGzipRequest(long length) {
+        return (gzipRequestThreshold >= 0) && ((length < 0) || (length >= gzipRequestThreshold));
+    }
+
     private boolean checkRequestType(String body, String actionTemp) {
         return (body != null) && !body.isEmpty() && !"get".equalsIgnoreCase(actionTemp);
     }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.text.Normalizer;
+import java.util.Locale;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Response of HTTPSender whose body is read as a stream.<br>
+ * <p>
+ * The response must be closed after the body has been consumed, which frees the connection (or
+ * hands it back to the pool in connection pool mode).
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-27
+ */
+public class HTTPStreamResponse implements Closeable {
+
+    private static final String DEFAULT_CHARSET = "UTF-8";
+
+    private final HTTPSender sender;
+
+    private final HttpURLConnection conn;
+
+    private final int status;
+
+    private final String token;
+
+    private final InputStream body;
+
+    private final boolean normalize;
+
+    private boolean closed = false;
+
+    HTTPStreamResponse(HTTPSender sender, HttpURLConnection conn, int status, String token, InputStream body,
+            boolean normalize) {
+        this.sender = sender;
+        this.conn = conn;
+        this.status = status;
+        this.token = token;
+        this.body = (body == null) ? new ByteArrayInputStream(new byte[0]) : body;
+        this.normalize = normalize;
+    }
+
+    /**
+     * @return Returns the status.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Returns the token.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Get a response header.<br>
+     *
+     * @param name Header name
+     * @return Header value, null if not present
+     * @since SDNO 0.5
+     */
+    public String getHeader(String name) {
+        return conn.getHeaderField(name);
+    }
+
+    /**
+     * Get the raw response body.<br>
+     *
+     * @return Body stream
+     * @since SDNO 0.5
+     */
+    public InputStream getInputStream() {
+        return body;
+    }
+
+    /**
+     * Get the response body as text, decoded with the charset of the response and normalized
+     * to NFKC when normalization is enabled on the sender.<br>
+     *
+     * @return Body reader
+     * @throws UnsupportedEncodingException if the charset of the response is not supported
+     * @since SDNO 0.5
+     */
+    public Reader getReader() throws UnsupportedEncodingException {
+        Reader reader = new InputStreamReader(body, getCharset());
+        return normalize ? new NormalizingReader(reader, Normalizer.Form.NFKC) : reader;
+    }
+
+    /**
+     * Close the body and free the connection.<br>
+     *
+     * @since SDNO 0.5
+     */
+    @Override
+    public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        IOUtils.closeQuietly(body);
+        sender.close(conn);
+    }
+
+    private String getCharset() {
+        String contentType = conn.getContentType();
+        if(contentType != null) {
+            for(String param : contentType.split(";")) {
+                String item = param.trim();
+                if(item.toLowerCase(Locale.ENGLISH).startsWith("charset=")) {
+                    return item.substring("charset=".length()).replace("\"", "").trim();
+                }
+            }
+        }
+        return DEFAULT_CHARSET;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keep-alive connection pool used by HTTPSender.<br>
+ * <p>
+ * The JDK keeps a HTTP connection alive only when the response body is read to the end and the
+ * stream is closed instead of calling disconnect(), and only reuses a HTTPS connection when it
+ * is opened with the same SSLSocketFactory instance. This pool hands out one cached
+ * SSLSocketFactory per SSLContext, so that both sockets and TLS sessions are reused, limits the
+ * number of connections in use per host, and hands finished connections back to the JDK
+ * keep-alive cache. Host entries which are not used for longer than the idle timeout are evicted.
+ * </p>
+ * <p>
+ * The JDK keep-alive cache itself keeps at most http.maxConnections idle connections per host,
+ * 5 unless the system property is set, and closes the others when they are released. Start the
+ * JVM with -Dhttp.maxConnections=20 to keep as many connections alive as the default limit of
+ * this pool allows to be in use.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-20
+ */
+public class HttpConnectionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+    /**
+     * Default maximum number of connections in use per host.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+
+    /**
+     * Default number of idle connections per host kept alive by the JDK.
+     */
+    private static final int DEFAULT_JDK_KEEP_ALIVE_CONNECTIONS = 5;
+
+    /**
+     * Default idle time (ms) after which a host entry is evicted.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = 60000L;
+
+    private final int maxConnectionsPerHost;
+
+    private final long idleTimeout;
+
+    private final ConcurrentMap<String, HostEntry> hostEntries = new ConcurrentHashMap<String, HostEntry>();
+
+    private final ConcurrentMap<HttpURLConnection, HostEntry> leasedConns =
+            new ConcurrentHashMap<HttpURLConnection, HostEntry>();
+
+    private final ConcurrentMap<SSLContext, SSLSocketFactory> socketFactories =
+            new ConcurrentHashMap<SSLContext, SSLSocketFactory>();
+
+    private volatile long lastEvictTime = System.currentTimeMillis();
+
+    /**
+     * Constructor with default limits.<br>
+     *
+     * @since SDNO 0.5
+     */
+    public HttpConnectionPool() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param maxConnectionsPerHost Maximum number of connections in use per host
+     * @param idleTimeout Idle time in milliseconds after which a host entry is evicted
+     */
+    public HttpConnectionPool(int maxConnectionsPerHost, long idleTimeout) {
+        if(maxConnectionsPerHost <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be positive");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.idleTimeout = idleTimeout;
+
+        int keepAliveConnections = Integer.getInteger("http.maxConnections", DEFAULT_JDK_KEEP_ALIVE_CONNECTIONS);
+        if(keepAliveConnections < maxConnectionsPerHost) {
+            LOGGER.warn("http.maxConnections is " + keepAliveConnections + ", lower than " + maxConnectionsPerHost
+                    + " connections per host, connections above it are not kept alive.");
+        }
+    }
+
+    /**
+     * @return Returns the maxConnectionsPerHost.
+     */
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * @return Returns the idleTimeout.
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Get the shared socket factory of the SSL context, the same instance is returned for every
+     * call so that the JDK can reuse connections and TLS sessions.<br>
+     *
+     * @param sslContext SSL context
+     * @return Cached socket factory
+     * @since SDNO 0.5
+     */
+    public SSLSocketFactory getSocketFactory(SSLContext sslContext) {
+        SSLSocketFactory factory = socketFactories.get(sslContext);
+        if(factory == null) {
+            SSLSocketFactory newFactory = sslContext.getSocketFactory();
+            factory = socketFactories.putIfAbsent(sslContext, newFactory);
+            if(factory == null) {
+                factory = newFactory;
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Wait for a free connection slot of the host and bind the connection to it. The connection
+     * must be opened but not yet connected.<br>
+     *
+     * @param conn Opened connection
+     * @param timeout Maximum time to wait in milliseconds
+     * @throws IOException if no slot is released in time
+     * @since SDNO 0.5
+     */
+    public void acquire(HttpURLConnection conn, long timeout) throws IOException {
+        evictIdle();
+        String hostKey = getHostKey(conn.getURL());
+        long deadline = System.currentTimeMillis() + timeout;
+        while(true) {
+            HostEntry entry = getHostEntry(hostKey);
+            long remaining = Math.max(deadline - System.currentTimeMillis(), 0L);
+            try {
+                if(!entry.permits.tryAcquire(remaining, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("No free connection to " + hostKey + " in " + timeout + " ms");
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for connection to " + hostKey, e);
+            }
+
+            // The entry was evicted after it was looked up, its slots no longer count for the host.
+            if(entry.evicted) {
+                entry.permits.release();
+                continue;
+            }
+            entry.lastUsed = System.currentTimeMillis();
+            leasedConns.put(conn, entry);
+            return;
+        }
+    }
+
+    /**
+     * Close the response stream instead of disconnecting, so that the JDK reads the rest of the
+     * body and returns the socket to its keep-alive cache, then free the slot of the host.<br>
+     *
+     * @param conn Connection whose response code has been read
+     * @since SDNO 0.5
+     */
+    public void release(HttpURLConnection conn) {
+        HostEntry entry = leasedConns.remove(conn);
+        if(entry == null) {
+            conn.disconnect();
+            return;
+        }
+
+        InputStream in = null;
+        try {
+            in = (conn.getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST) ? conn.getInputStream()
+                    : conn.getErrorStream();
+        } catch(IOException e) {
+            LOGGER.debug("Get response stream failed when release connection. ", e);
+        } finally {
+            IOUtils.closeQuietly(in);
+            entry.lastUsed = System.currentTimeMillis();
+            entry.permits.release();
+        }
+    }
+
+    /**
+     * Close the connection without keeping it alive and free the slot of the host, used when the
+     * request failed before the response code was read.<br>
+     *
+     * @param conn Connection to be discarded
+     * @since SDNO 0.5
+     */
+    public void discard(HttpURLConnection conn) {
+        conn.disconnect();
+        HostEntry entry = leasedConns.remove(conn);
+        if(entry != null) {
+            entry.lastUsed = System.currentTimeMillis();
+            entry.permits.release();
+        }
+    }
+
+    /**
+     * Get the number of connections in use of the host in the URL.<br>
+     *
+     * @param url Request URL
+     * @return Number of connections in use
+     * @since SDNO 0.5
+     */
+    public int getLeasedCount(URL url) {
+        HostEntry entry = hostEntries.get(getHostKey(url));
+        return (entry == null) ? 0 : maxConnectionsPerHost - entry.permits.availablePermits();
+    }
+
+    private HostEntry getHostEntry(String hostKey) {
+        HostEntry entry = hostEntries.get(hostKey);
+        if(entry == null) {
+            HostEntry newEntry = new HostEntry(maxConnectionsPerHost);
+            entry = hostEntries.putIfAbsent(hostKey, newEntry);
+            if(entry == null) {
+                entry = newEntry;
+            }
+        }
+        return entry;
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        if(now - lastEvictTime < idleTimeout) {
+            return;
+        }
+        lastEvictTime = now;
+
+        Iterator<Entry<String, HostEntry>> iter = hostEntries.entrySet().iterator();
+        while(iter.hasNext()) {
+            Map.Entry<String, HostEntry> item = iter.next();
+            HostEntry entry = item.getValue();
+
+            // Taking every slot makes sure no connection is in use or acquired while the entry is
+            // evicted. Threads which looked the entry up before get a slot back and retry.
+            if((now - entry.lastUsed > idleTimeout) && entry.permits.tryAcquire(maxConnectionsPerHost)) {
+                LOGGER.info("Evict idle host entry " + item.getKey());
+                entry.evicted = true;
+                iter.remove();
+                entry.permits.release(maxConnectionsPerHost);
+            }
+        }
+    }
+
+    /**
+     * Get the key of the host in the URL, made of the scheme, the host and the port, the default
+     * port of the scheme if the URL has none.<br>
+     *
+     * @param url Request URL
+     * @return Host key
+     * @since SDNO 0.5
+     */
+    public static String getHostKey(URL url) {
+        int port = (url.getPort() == -1) ? url.getDefaultPort() : url.getPort();
+        return url.getProtocol() + "://" + url.getHost() + ":" + port;
+    }
+
+    private static class HostEntry {
+
+        final Semaphore permits;
+
+        volatile long lastUsed = System.currentTimeMillis();
+
+        volatile boolean evicted;
+
+        HostEntry(int maxConnections) {
+            permits = new Semaphore(maxConnections, true);
+        }
+    }
+}
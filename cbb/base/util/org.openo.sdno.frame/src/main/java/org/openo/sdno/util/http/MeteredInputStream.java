@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import org.openo.sdno.util.metrics.RequestMetricsRecorder;
+
+/**
+ * Input stream which counts the bytes read and records them when it is closed.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-7
+ */
+public class MeteredInputStream extends FilterInputStream {
+
+    private final RequestMetricsRecorder recorder;
+
+    private final URL url;
+
+    private final String action;
+
+    private long count;
+
+    private boolean closed;
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param in Stream the bytes are read from
+     * @param recorder Recorder of the byte count
+     * @param url Request URL
+     * @param action Request method
+     */
+    public MeteredInputStream(InputStream in, RequestMetricsRecorder recorder, URL url, String action) {
+        super(in);
+        this.recorder = recorder;
+        this.url = url;
+        this.action = action;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if(value >= 0) {
+            count++;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if(read > 0) {
+            count += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if(!closed) {
+                closed = true;
+                recorder.recordBytesIn(url, action, count);
+            }
+        }
+    }
+}
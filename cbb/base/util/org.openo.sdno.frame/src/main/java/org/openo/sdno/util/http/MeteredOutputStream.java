@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+
+import org.openo.sdno.util.metrics.RequestMetricsRecorder;
+
+/**
+ * Output stream which counts the bytes written and records them when it is closed.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-7
+ */
+public class MeteredOutputStream extends FilterOutputStream {
+
+    private final RequestMetricsRecorder recorder;
+
+    private final URL url;
+
+    private final String action;
+
+    private long count;
+
+    private boolean closed;
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param out Stream the bytes are written to
+     * @param recorder Recorder of the byte count
+     * @param url Request URL
+     * @param action Request method
+     */
+    public MeteredOutputStream(OutputStream out, RequestMetricsRecorder recorder, URL url, String action) {
+        super(out);
+        this.recorder = recorder;
+        this.url = url;
+        this.action = action;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if(!closed) {
+                closed = true;
+                recorder.recordBytesOut(url, action, count);
+            }
+        }
+    }
+}
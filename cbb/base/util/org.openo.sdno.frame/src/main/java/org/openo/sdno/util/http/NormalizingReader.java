@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.Normalizer;
+
+/**
+ * Reader applying Unicode normalization to the text of another reader chunk by chunk.<br>
+ * <p>
+ * Text is only normalized up to the last ASCII character read so far; an ASCII character never
+ * combines with the characters before it, so normalizing the text in such pieces gives the same
+ * result as normalizing it at once. The rest is kept until more input arrives.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-27
+ */
+public class NormalizingReader extends Reader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Text without ASCII characters longer than this is normalized anyway.
+     */
+    private static final int MAX_PENDING = 64 * 1024;
+
+    private final Reader in;
+
+    private final Normalizer.Form form;
+
+    private final char[] readBuffer = new char[BUFFER_SIZE];
+
+    private final StringBuilder pending = new StringBuilder();
+
+    private String output = "";
+
+    private int outputPos = 0;
+
+    private boolean eof = false;
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param in Reader of the text to be normalized
+     * @param form Normalization form
+     */
+    public NormalizingReader(Reader in, Normalizer.Form form) {
+        super(in);
+        this.in = in;
+        this.form = form;
+    }
+
+    /**
+     * Read normalized characters into a portion of an array.<br>
+     *
+     * @param cbuf Destination buffer
+     * @param off Offset at which to start storing characters
+     * @param len Maximum number of characters to read
+     * @return The number of characters read, or -1 if the end of the stream has been reached
+     * @throws IOException if reading the underlying reader fails
+     * @since SDNO 0.5
+     */
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if(len == 0) {
+            return 0;
+        }
+        while(outputPos >= output.length()) {
+            if(!fill()) {
+                return -1;
+            }
+        }
+
+        int count = Math.min(len, output.length() - outputPos);
+        output.getChars(outputPos, outputPos + count, cbuf, off);
+        outputPos += count;
+        return count;
+    }
+
+    /**
+     * Close the underlying reader.<br>
+     *
+     * @throws IOException if closing fails
+     * @since SDNO 0.5
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean fill() throws IOException {
+        if(eof) {
+            return false;
+        }
+
+        int count = in.read(readBuffer, 0, readBuffer.length);
+        if(count < 0) {
+            eof = true;
+            setOutput(pending.length());
+            return true;
+        }
+        pending.append(readBuffer, 0, count);
+
+        int split = pending.length() - 1;
+        while((split > 0) && (pending.charAt(split) >= 0x80)) {
+            split--;
+        }
+        if((split == 0) && (pending.length() > MAX_PENDING)) {
+            split = pending.length();
+        }
+        setOutput(split);
+        return true;
+    }
+
+    private void setOutput(int end) {
+        String text = pending.substring(0, end);
+        pending.delete(0, end);
+        output = Normalizer.isNormalized(text, form) ? text : Normalizer.normalize(text, form);
+        outputPos = 0;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of authentication tokens used by HTTPSender.<br>
+ * <p>
+ * Tokens are keyed by the authentication URL, action and credentials. A token is reused until
+ * shortly before it expires, by at most 30 seconds and at most a quarter of its lifetime, so short
+ * lived tokens are reused too. A token without expiry, or whose expiry is not in the future, lives
+ * for the default time to live. When several threads need the same missing or expired token, only
+ * one of them authenticates and the others wait for its result.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-24
+ */
+public class TokenCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenCache.class);
+
+    /**
+     * Default time to live (ms) of a token whose expiry is not known.
+     */
+    public static final long DEFAULT_TOKEN_TTL = 30 * 60 * 1000L;
+
+    /**
+     * Tokens are refreshed at most this long (ms) before they expire.
+     */
+    private static final long EXPIRY_MARGIN = 30 * 1000L;
+
+    /**
+     * Tokens are refreshed at most this fraction of their lifetime before they expire.
+     */
+    private static final int EXPIRY_MARGIN_DIVISOR = 4;
+
+    private final long defaultTtl;
+
+    private final ConcurrentMap<String, CachedToken> tokens = new ConcurrentHashMap<String, CachedToken>();
+
+    private final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<String, Object>();
+
+    /**
+     * Constructor with default token time to live.<br>
+     *
+     * @since SDNO 0.5
+     */
+    public TokenCache() {
+        this(DEFAULT_TOKEN_TTL);
+    }
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param defaultTtl Time to live in milliseconds of a token whose expiry is not known
+     */
+    public TokenCache(long defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    /**
+     * Get the cached token of the key, or load a new one if there is no valid token.<br>
+     *
+     * @param key Cache key, see {@link #buildKey(String, String, String)}
+     * @param loader Loader used to authenticate when there is no valid token
+     * @return Token
+     * @throws ServiceException if authentication failed
+     * @since SDNO 0.5
+     */
+    public String getToken(String key, TokenLoader loader) throws ServiceException {
+        CachedToken token = tokens.get(key);
+        if(isValid(token)) {
+            return token.value;
+        }
+
+        Object lock = getLock(key);
+        synchronized(lock) {
+            try {
+                token = tokens.get(key);
+                if(isValid(token)) {
+                    return token.value;
+                }
+
+                LOGGER.info("Token cache miss, authenticate again.");
+                Token newToken = loader.load();
+                long now = System.currentTimeMillis();
+                long expireTime = newToken.expireTime;
+                if((expireTime <= now) || (expireTime > now + defaultTtl)) {
+                    expireTime = now + defaultTtl;
+                }
+                long margin = Math.min(EXPIRY_MARGIN, (expireTime - now) / EXPIRY_MARGIN_DIVISOR);
+                tokens.put(key, new CachedToken(newToken.value, expireTime - margin));
+                return newToken.value;
+            } finally {
+                // Only keep the lock while a token is loaded, threads still waiting for it find the
+                // new token when they get it.
+                locks.remove(key, lock);
+            }
+        }
+    }
+
+    /**
+     * Remove the token of the key if it is still the given stale token, typically after the
+     * server rejected it.<br>
+     *
+     * @param key Cache key
+     * @param staleToken Token rejected by the server
+     * @since SDNO 0.5
+     */
+    public void invalidate(String key, String staleToken) {
+        CachedToken token = tokens.get(key);
+        if((token != null) && token.value.equals(staleToken)) {
+            tokens.remove(key, token);
+        }
+    }
+
+    /**
+     * Remove all the cached tokens.<br>
+     *
+     * @since SDNO 0.5
+     */
+    public void clear() {
+        tokens.clear();
+    }
+
+    /**
+     * Build the cache key of an authentication request. The credentials are stored as a digest.<br>
+     *
+     * @param url Authentication URL
+     * @param action Authentication action
+     * @param body Authentication body carrying the credentials
+     * @return Cache key
+     * @since SDNO 0.5
+     */
+    public static String buildKey(String url, String action, String body) {
+        StringBuilder key = new StringBuilder();
+        key.append(action).append(' ').append(url).append(' ');
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.valueOf(body).getBytes("UTF-8"));
+            for(byte b : hash) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+        } catch(NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            LOGGER.warn("Digest credentials failed. ", e);
+            key.append(String.valueOf(body).hashCode());
+        }
+        return key.toString();
+    }
+
+    private static boolean isValid(CachedToken token) {
+        return (token != null) && (token.refreshTime > System.currentTimeMillis());
+    }
+
+    private Object getLock(String key) {
+        Object lock = locks.get(key);
+        if(lock == null) {
+            Object newLock = new Object();
+            lock = locks.putIfAbsent(key, newLock);
+            if(lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Cached token with the time from which it is refreshed.
+     */
+    private static class CachedToken {
+
+        final String value;
+
+        final long refreshTime;
+
+        CachedToken(String value, long refreshTime) {
+            this.value = value;
+            this.refreshTime = refreshTime;
+        }
+    }
+
+    /**
+     * Authentication token with its expire time.<br>
+     *
+     * @author
+     * @version SDNO 0.5 2017-3-24
+     */
+    public static class Token {
+
+        private final String value;
+
+        private final long expireTime;
+
+        /**
+         * Constructor.<br>
+         *
+         * @since SDNO 0.5
+         * @param value Token value
+         * @param expireTime Expire time in milliseconds since epoch, 0 if not known
+         */
+        public Token(String value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+
+        /**
+         * @return Returns the value.
+         */
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * @return Returns the expireTime.
+         */
+        public long getExpireTime() {
+            return expireTime;
+        }
+    }
+
+    /**
+     * Loader authenticating to the server when the cache has no valid token.<br>
+     *
+     * @author
+     * @version SDNO 0.5 2017-3-24
+     */
+    public interface TokenLoader {
+
+        /**
+         * Authenticate and return the new token.<br>
+         *
+         * @return New token
+         * @throws ServiceException if authentication failed
+         * @since SDNO 0.5
+         */
+        Token load() throws ServiceException;
+    }
+}
@@ -16,7 +16,6 @@
 
 package org.openo.sdno.util.http.json;
 
-import java.lang.reflect.Field;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -24,6 +23,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * JSON object parsing NetMatrixJsonUtil class.<br>
+ * <p>
+ * Maps are bound to objects through ObjectBinder, which is built once per target type.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 2016-4-12
@@ -49,33 +51,17 @@ public final class NetMatrixJsonUtil {
      * @since SDNO 0.5
      */
     public static <T> T parser(Map fieldMap, Class<T> objType) {
-        Field[] fields = objType.getDeclaredFields();
-        T objt;
         try {
-            objt = objType.newInstance();
-            for(Field field : fields) {
-                if(fieldMap.containsKey(field.getName())) {
-                    field.setAccessible(true);
-                    Object filedObj = fieldMap.get(field.getName());
-
-                    // If the current field is an object, we need to parse the corresponding sub
-                    // map in the map, and then fill in the parsed child object.
-                    if(filedObj instanceof Map) {
-                        field.set(objt, parser((Map)filedObj, field.getType()));
-                    } else {
-                        // basic data types
-                        field.set(objt, fieldMap.get(field.getName()));
-
-                    }
-                }
-            }
-            return objt;
+            return ObjectBinder.forType(objType).bind(fieldMap);
         } catch(InstantiationException e) {
             LOGGER.warn("parser " + objType.getName() + " failed ,field is wrong or new instance failed.", e);
 
         } catch(IllegalAccessException e) {
             LOGGER.warn("parser " + objType.getName() + " failed,field is wrong or new instance failed.", e);
 
+        } catch(IllegalStateException e) {
+            LOGGER.warn("parser " + objType.getName() + " failed,field is not accessible.", e);
+
         }
         return null;
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.json;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openo.sdno.util.reflect.ClassModel;
+import org.openo.sdno.util.reflect.FieldAccessor;
+import org.openo.sdno.util.reflect.FieldModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binder which fills objects of one type from the maps parsed out of NetMatrix JSON.<br>
+ * <p>
+ * The binder of each type is built once and cached. It keeps the fields declared by the type,
+ * except the static final ones which can not be set, and each field keeps its accessor and the
+ * binder of its own type, both resolved the first time the field is bound. Binding then only
+ * creates the target objects.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-27
+ * @param <T> Type of the bound objects
+ */
+final class ObjectBinder<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectBinder.class);
+
+    private static final ClassValue<ObjectBinder<?>> BINDERS = new ClassValue<ObjectBinder<?>>() {
+
+        @Override
+        protected ObjectBinder<?> computeValue(Class<?> type) {
+            return new ObjectBinder<Object>(type);
+        }
+    };
+
+    private final Class<T> type;
+
+    private final FieldBinder[] fieldBinders;
+
+    @SuppressWarnings("unchecked")
+    private ObjectBinder(Class<?> type) {
+        this.type = (Class<T>)type;
+        List<FieldBinder> binders = new ArrayList<FieldBinder>();
+        for(FieldModel field : ClassModel.of(type).getFields()) {
+            // Only the fields declared by the type itself are bound.
+            if((field.getField().getDeclaringClass() == type) && !isConstant(field)) {
+                binders.add(new FieldBinder(field));
+            }
+        }
+        this.fieldBinders = binders.toArray(new FieldBinder[binders.size()]);
+    }
+
+    private static boolean isConstant(FieldModel field) {
+        int modifiers = field.getField().getModifiers();
+        return Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers);
+    }
+
+    /**
+     * Get the binder of the type.<br>
+     * 
+     * @param type Type of the bound objects
+     * @return Cached binder of the type
+     * @since SDNO 0.5
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ObjectBinder<T> forType(Class<T> type) {
+        return (ObjectBinder<T>)BINDERS.get(type);
+    }
+
+    /**
+     * Create an object and fill the fields whose names are keys of the map. A nested map is bound
+     * to an object of the field type.<br>
+     * 
+     * @param fieldMap Map of field names and values
+     * @return New object
+     * @throws InstantiationException if the type can not be instantiated
+     * @throws IllegalAccessException if the constructor is not accessible
+     * @throws IllegalStateException if a field can not be set
+     * @since SDNO 0.5
+     */
+    T bind(Map<?, ?> fieldMap) throws InstantiationException, IllegalAccessException {
+        T obj = type.newInstance();
+        for(FieldBinder fieldBinder : fieldBinders) {
+            Object value = fieldMap.get(fieldBinder.name);
+            if((value != null) || fieldMap.containsKey(fieldBinder.name)) {
+                fieldBinder.bind(obj, value);
+            }
+        }
+        return obj;
+    }
+
+    private static class FieldBinder {
+
+        final String name;
+
+        private final FieldModel field;
+
+        private final Class<?> fieldType;
+
+        private volatile FieldAccessor accessor;
+
+        private volatile ObjectBinder<?> nestedBinder;
+
+        FieldBinder(FieldModel field) {
+            this.name = field.getName();
+            this.field = field;
+            this.fieldType = field.getType();
+        }
+
+        void bind(Object obj, Object value) {
+            FieldAccessor fieldAccessor = accessor;
+            if(fieldAccessor == null) {
+                // Made accessible on first use, fields which are never bound are left alone.
+                fieldAccessor = field.getAccessor();
+                accessor = fieldAccessor;
+            }
+
+            if(value instanceof Map) {
+                fieldAccessor.set(obj, bindNested((Map<?, ?>)value));
+            } else {
+                // basic data types
+                fieldAccessor.set(obj, value);
+            }
+        }
+
+        private Object bindNested(Map<?, ?> fieldMap) {
+            // Resolved here rather than when the binder is built, so recursive types work.
+            ObjectBinder<?> binder = nestedBinder;
+            if(binder == null) {
+                binder = forType(fieldType);
+                nestedBinder = binder;
+            }
+            try {
+                return binder.bind(fieldMap);
+            } catch(InstantiationException | IllegalAccessException | IllegalStateException e) {
+                // The field is left null, as the parsing of the enclosing object goes on.
+                LOGGER.warn("parser " + fieldType.getName() + " failed, new instance failed.", e);
+                return null;
+            }
+        }
+    }
+}
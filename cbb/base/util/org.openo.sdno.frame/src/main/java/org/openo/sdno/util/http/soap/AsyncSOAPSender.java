@@ -0,0 +1,352 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.soap;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.xml.soap.SOAPMessage;
+
+import org.openo.sdno.framework.base.threadpool.KeyedTaskExecutor;
+import org.openo.sdno.util.http.HttpConnectionPool;
+
+/**
+ * Asynchronous front end of SOAPMessageUtil.<br>
+ * <p>
+ * Requests are queued per endpoint and at most maxInFlightPerEndpoint of them are sent to the
+ * same endpoint at a time. Waiting requests do not hold a thread, and the queue of each endpoint
+ * is bounded, a request submitted to a full queue is rejected so that callers slow down instead
+ * of piling up work. With a batch size above one, requests to an endpoint which are still
+ * waiting in its queue are grouped and sent one after another by a single task, over the same
+ * kept-alive connection when the pool mode of SOAPMessageUtil is enabled, so that a burst of small
+ * requests takes one queue slot and one thread hand-over per batch. A request which the executor
+ * rejects, such as after it is shut down, fails its future with the rejection and notifies its
+ * callback with a null response.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-17
+ */
+public class AsyncSOAPSender {
+
+    /**
+     * Default maximum number of requests in flight per endpoint.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_ENDPOINT = 4;
+
+    /**
+     * Default maximum number of waiting requests, or batches, per endpoint.
+     */
+    public static final int DEFAULT_MAX_QUEUED_PER_ENDPOINT = 256;
+
+    private final SOAPMessageUtil messageUtil;
+
+    private final ExecutorService executor;
+
+    private final boolean ownExecutor;
+
+    private final KeyedTaskExecutor endpointExecutor;
+
+    private final Map<String, Batch> pendingBatches = new HashMap<String, Batch>();
+
+    private volatile int batchSize = 1;
+
+    /**
+     * Constructor, requests are run by an internal thread pool.<br>
+     *
+     * @since SDNO 0.5
+     * @param messageUtil Synchronous sender doing the requests
+     * @param maxInFlightPerEndpoint Maximum number of requests in flight per endpoint
+     * @param maxQueuedPerEndpoint Maximum number of waiting requests, or batches, per endpoint
+     */
+    public AsyncSOAPSender(SOAPMessageUtil messageUtil, int maxInFlightPerEndpoint, int maxQueuedPerEndpoint) {
+        this(messageUtil, Executors.newCachedThreadPool(), maxInFlightPerEndpoint, maxQueuedPerEndpoint, true);
+    }
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param messageUtil Synchronous sender doing the requests
+     * @param executor Executor running the requests
+     * @param maxInFlightPerEndpoint Maximum number of requests in flight per endpoint
+     * @param maxQueuedPerEndpoint Maximum number of waiting requests, or batches, per endpoint
+     */
+    public AsyncSOAPSender(SOAPMessageUtil messageUtil, ExecutorService executor, int maxInFlightPerEndpoint,
+            int maxQueuedPerEndpoint) {
+        this(messageUtil, executor, maxInFlightPerEndpoint, maxQueuedPerEndpoint, false);
+    }
+
+    private AsyncSOAPSender(SOAPMessageUtil messageUtil, ExecutorService executor, int maxInFlightPerEndpoint,
+            int maxQueuedPerEndpoint, boolean ownExecutor) {
+        this.messageUtil = messageUtil;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.endpointExecutor = new KeyedTaskExecutor(executor, maxInFlightPerEndpoint, maxQueuedPerEndpoint) {
+
+            @Override
+            protected void onRejected(String key, Callable<?> task, RejectedExecutionException cause) {
+                if(task instanceof Batch) {
+                    ((Batch)task).reject(cause);
+                } else if(task instanceof Request) {
+                    ((Request)task).reject();
+                }
+            }
+        };
+    }
+
+    /**
+     * Set the maximum number of waiting requests of an endpoint which are grouped into one batch.
+     * Default is 1, which disables batching.<br>
+     *
+     * @param batchSize Maximum number of requests per batch
+     * @since SDNO 0.5
+     */
+    public void setBatchSize(int batchSize) {
+        if(batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return Returns the batchSize.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Asynchronous version of {@link SOAPMessageUtil#sendMessage(String, byte[], int)}.<br>
+     *
+     * @param msgUrl URL which identifies where the message should be sent.
+     * @param bytes The message to be sent
+     * @param timeout Timeout length
+     * @param callback Callback notified on completion, can be null
+     * @return Future of the response message, whose result is null if sending failed
+     * @throws RejectedExecutionException if the queue of the endpoint is full
+     * @since SDNO 0.5
+     */
+    public Future<SOAPMessage> sendMessage(final String msgUrl, final byte[] bytes, final int timeout,
+            final SOAPResponseCallback callback) {
+        return submit(msgUrl, new Request(callback) {
+
+            @Override
+            SOAPMessage send() {
+                return messageUtil.sendMessage(msgUrl, bytes, timeout);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link SOAPMessageUtil#sendMessage(SOAPMessage, String, int)}.<br>
+     *
+     * @param message The message to be sent
+     * @param urlPath URL which identifies where the message should be sent.
+     * @param timeout Timeout length
+     * @param callback Callback notified on completion, can be null
+     * @return Future of the response message, whose result is null if sending failed
+     * @throws RejectedExecutionException if the queue of the endpoint is full
+     * @since SDNO 0.5
+     */
+    public Future<SOAPMessage> sendMessage(final SOAPMessage message, final String urlPath, final int timeout,
+            final SOAPResponseCallback callback) {
+        return submit(urlPath, new Request(callback) {
+
+            @Override
+            SOAPMessage send() {
+                return messageUtil.sendMessage(message, urlPath, timeout);
+            }
+        });
+    }
+
+    /**
+     * Get the number of requests, or batches, in flight to the endpoint.<br>
+     *
+     * @param urlPath Endpoint URL
+     * @return Number of requests in flight
+     * @since SDNO 0.5
+     */
+    public int getInFlightCount(String urlPath) {
+        return endpointExecutor.getRunningCount(getEndpointKey(urlPath));
+    }
+
+    /**
+     * Get the number of requests, or batches, waiting for the endpoint.<br>
+     *
+     * @param urlPath Endpoint URL
+     * @return Number of waiting requests
+     * @since SDNO 0.5
+     */
+    public int getWaitingCount(String urlPath) {
+        return endpointExecutor.getWaitingCount(getEndpointKey(urlPath));
+    }
+
+    /**
+     * Shut down the internal thread pool, an executor passed in by the caller is left running.<br>
+     *
+     * @since SDNO 0.5
+     */
+    public void shutdown() {
+        if(ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private Future<SOAPMessage> submit(String urlPath, Request request) {
+        String key = getEndpointKey(urlPath);
+        if(batchSize <= 1) {
+            return endpointExecutor.submit(key, request);
+        }
+
+        BatchedRequest task = new BatchedRequest(request);
+        synchronized(pendingBatches) {
+            Batch batch = pendingBatches.get(key);
+            if((batch != null) && (batch.tasks.size() < batchSize)) {
+                batch.tasks.add(task);
+                return task;
+            }
+
+            batch = new Batch(key);
+            batch.tasks.add(task);
+            pendingBatches.put(key, batch);
+            try {
+                endpointExecutor.submit(key, batch);
+            } catch(RejectedExecutionException e) {
+                // The queue of the endpoint is full, the batch was never queued.
+                pendingBatches.remove(key);
+                throw e;
+            }
+        }
+        return task;
+    }
+
+    private static String getEndpointKey(String urlPath) {
+        try {
+            URL url = new URL(urlPath);
+            return HttpConnectionPool.getHostKey(url) + url.getPath();
+        } catch(MalformedURLException e) {
+            // Sending will fail the same way, just group the request by itself.
+            return String.valueOf(urlPath);
+        }
+    }
+
+    /**
+     * One request, whose callback is notified with a null response when the executor rejects it.
+     */
+    private abstract static class Request implements Callable<SOAPMessage> {
+
+        private final SOAPResponseCallback callback;
+
+        Request(SOAPResponseCallback callback) {
+            this.callback = callback;
+        }
+
+        abstract SOAPMessage send();
+
+        @Override
+        public SOAPMessage call() {
+            SOAPMessage response = send();
+            if(callback != null) {
+                callback.onComplete(response);
+            }
+            return response;
+        }
+
+        void reject() {
+            if(callback != null) {
+                callback.onComplete(null);
+            }
+        }
+    }
+
+    /**
+     * Future of a request sent as part of a batch.
+     */
+    private static class BatchedRequest extends FutureTask<SOAPMessage> {
+
+        private final Request request;
+
+        BatchedRequest(Request request) {
+            super(request);
+            this.request = request;
+        }
+
+        void reject(RejectedExecutionException cause) {
+            request.reject();
+            setException(cause);
+        }
+    }
+
+    /**
+     * Requests to one endpoint which are sent by one task. Requests join the batch until the task
+     * starts.
+     */
+    private class Batch implements Callable<Void> {
+
+        final String key;
+
+        final List<BatchedRequest> tasks = new ArrayList<BatchedRequest>();
+
+        Batch(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public Void call() {
+            synchronized(pendingBatches) {
+                if(pendingBatches.get(key) == this) {
+                    pendingBatches.remove(key);
+                }
+            }
+
+            for(BatchedRequest task : tasks) {
+                if(Thread.currentThread().isInterrupted()) {
+                    task.cancel(false);
+                } else {
+                    task.run();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Fail the requests of the batch when the executor rejects it, requests can no longer join.
+         */
+        void reject(RejectedExecutionException cause) {
+            synchronized(pendingBatches) {
+                if(pendingBatches.get(key) == this) {
+                    pendingBatches.remove(key);
+                }
+            }
+
+            for(BatchedRequest task : tasks) {
+                task.reject(cause);
+            }
+        }
+    }
+}
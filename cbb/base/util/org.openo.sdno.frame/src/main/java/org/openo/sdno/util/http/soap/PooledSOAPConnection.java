@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.soap;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.MimeHeader;
+import javax.xml.soap.MimeHeaders;
+import javax.xml.soap.SOAPConnection;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPMessage;
+
+import org.apache.commons.io.IOUtils;
+import org.openo.sdno.util.http.HttpConnectionPool;
+import org.openo.sdno.util.http.MeteredOutputStream;
+import org.openo.sdno.util.metrics.RequestMetricsRecorder;
+
+/**
+ * SOAP connection sending messages over the keep-alive connections of a HttpConnectionPool.<br>
+ * <p>
+ * Unlike the default SAAJ connection, the timeout is set directly on each HTTP connection, and
+ * the response is read to the end before the connection is released, so that the socket is kept
+ * alive for the next message to the same endpoint. The object is cheap, a new one can be
+ * created for every call.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-12
+ */
+public class PooledSOAPConnection extends SOAPConnection {
+
+    private static final String SOAP_ACTION = "SOAPAction";
+
+    private final HttpConnectionPool connectionPool;
+
+    private final MessageFactory messageFactory;
+
+    private final int timeout;
+
+    private RequestMetricsRecorder metricsRecorder = null;
+
+    private boolean closed = false;
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param connectionPool Pool of the HTTP connections
+     * @param messageFactory Factory creating the response messages
+     * @param timeout Connect and read timeout in milliseconds
+     */
+    public PooledSOAPConnection(HttpConnectionPool connectionPool, MessageFactory messageFactory, int timeout) {
+        this.connectionPool = connectionPool;
+        this.messageFactory = messageFactory;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Set the recorder of the bytes sent and received, none by default.<br>
+     *
+     * @param metricsRecorder Metrics recorder, null to disable metrics
+     * @since SDNO 0.5
+     */
+    public void setMetricsRecorder(RequestMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    /**
+     * Send the message and wait for the response.<br>
+     *
+     * @param request Message to be sent
+     * @param to Endpoint, URL or String
+     * @return Response message, null if the response has no body
+     * @throws SOAPException if sending fails or the response is not a SOAP message
+     * @since SDNO 0.5
+     */
+    @Override
+    public SOAPMessage call(SOAPMessage request, Object to) throws SOAPException {
+        HttpURLConnection conn = send(request, to);
+        boolean released = false;
+        try {
+            InputStream in = getResponseStream(conn);
+            byte[] body = (in == null) ? new byte[0] : IOUtils.toByteArray(in);
+            if(metricsRecorder != null) {
+                metricsRecorder.recordBytesIn(conn.getURL(), conn.getRequestMethod(), body.length);
+            }
+            MimeHeaders responseHeaders = getResponseHeaders(conn);
+
+            connectionPool.release(conn);
+            released = true;
+            return (body.length == 0) ? null
+                    : messageFactory.createMessage(responseHeaders, new ByteArrayInputStream(body));
+        } catch(IOException e) {
+            throw new SOAPException("Read SOAP response from " + to + " failed", e);
+        } finally {
+            if(!released) {
+                connectionPool.discard(conn);
+            }
+        }
+    }
+
+    /**
+     * Send the message and wait for the response status, without reading the response body.
+     * The returned connection must be released to the pool by the caller.<br>
+     *
+     * @param request Message to be sent
+     * @param to Endpoint, URL or String
+     * @return Connection whose response status is 200 or 500
+     * @throws SOAPException if sending fails or the response status is not a SOAP response
+     * @since SDNO 0.5
+     */
+    HttpURLConnection send(SOAPMessage request, Object to) throws SOAPException {
+        if(closed) {
+            throw new SOAPException("Connection is closed");
+        }
+
+        URL url;
+        try {
+            url = (to instanceof URL) ? (URL)to : new URL(String.valueOf(to));
+        } catch(IOException e) {
+            throw new SOAPException("Bad endpoint " + to, e);
+        }
+
+        HttpURLConnection conn = null;
+        boolean sent = false;
+        try {
+            if(request.saveRequired()) {
+                request.saveChanges();
+            }
+
+            conn = (HttpURLConnection)url.openConnection();
+            conn.setConnectTimeout(timeout);
+            conn.setReadTimeout(timeout);
+            conn.setRequestMethod("POST");
+            conn.setDoOutput(true);
+            setRequestHeaders(conn, request.getMimeHeaders());
+            connectionPool.acquire(conn, (timeout > 0) ? timeout : Long.MAX_VALUE);
+
+            try (OutputStream os = getRequestStream(conn)) {
+                request.writeTo(os);
+            }
+
+            int status = conn.getResponseCode();
+            if((status != HttpURLConnection.HTTP_OK) && (status != HttpURLConnection.HTTP_INTERNAL_ERROR)) {
+                throw new SOAPException("Bad response: (" + status + ") " + conn.getResponseMessage());
+            }
+            sent = true;
+            return conn;
+        } catch(IOException e) {
+            throw new SOAPException("Send SOAP message to " + url + " failed", e);
+        } finally {
+            if((conn != null) && !sent) {
+                connectionPool.discard(conn);
+            }
+        }
+    }
+
+    /**
+     * Get the body stream of a response returned by send.<br>
+     *
+     * @param conn Connection returned by send
+     * @return Response body stream, null if there is no body
+     * @throws IOException if the stream cannot be opened
+     * @since SDNO 0.5
+     */
+    static InputStream getResponseStream(HttpURLConnection conn) throws IOException {
+        return (conn.getResponseCode() == HttpURLConnection.HTTP_OK) ? conn.getInputStream() : conn.getErrorStream();
+    }
+
+    private OutputStream getRequestStream(HttpURLConnection conn) throws IOException {
+        OutputStream os = conn.getOutputStream();
+        if(metricsRecorder == null) {
+            return os;
+        }
+        return new MeteredOutputStream(os, metricsRecorder, conn.getURL(), conn.getRequestMethod());
+    }
+
+    /**
+     * @return Returns the connectionPool.
+     */
+    HttpConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    @Override
+    public void close() throws SOAPException {
+        closed = true;
+    }
+
+    private static void setRequestHeaders(HttpURLConnection conn, MimeHeaders headers) {
+        boolean hasSoapAction = false;
+        Iterator<?> iter = headers.getAllHeaders();
+        while(iter.hasNext()) {
+            MimeHeader header = (MimeHeader)iter.next();
+            conn.setRequestProperty(header.getName(), header.getValue());
+            hasSoapAction |= SOAP_ACTION.equalsIgnoreCase(header.getName());
+        }
+        if(!hasSoapAction) {
+            conn.setRequestProperty(SOAP_ACTION, "\"\"");
+        }
+    }
+
+    private static MimeHeaders getResponseHeaders(HttpURLConnection conn) {
+        MimeHeaders headers = new MimeHeaders();
+        for(Entry<String, List<String>> entry : conn.getHeaderFields().entrySet()) {
+            if(entry.getKey() == null) {
+                continue;
+            }
+            for(String value : entry.getValue()) {
+                headers.addHeader(entry.getKey(), value);
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.soap;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Handler of the elements of a streamed SOAP response.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-14
+ */
+public interface SOAPElementHandler {
+
+    /**
+     * Handle one matched element. The reader is positioned at the START_ELEMENT event of the
+     * element, the handler can read as much of the element as it needs, the rest of it is
+     * skipped after the handler returns. The handler must not read beyond the END_ELEMENT event
+     * of the element.<br>
+     *
+     * @param reader Reader positioned at the element
+     * @throws XMLStreamException if reading fails
+     * @since SDNO 0.5
+     */
+    void onElement(XMLStreamReader reader) throws XMLStreamException;
+}
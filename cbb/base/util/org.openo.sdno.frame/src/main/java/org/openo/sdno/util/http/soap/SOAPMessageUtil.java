@@ -19,6 +19,8 @@ package org.openo.sdno.util.http.soap;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
@@ -31,6 +33,10 @@ import javax.xml.soap.SOAPConnectionFactory;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
 
+import org.openo.sdno.util.http.HttpConnectionPool;
+import org.openo.sdno.util.http.MeteredInputStream;
+import org.openo.sdno.util.metrics.RequestMetrics;
+import org.openo.sdno.util.metrics.RequestMetricsRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,8 +50,20 @@ public class SOAPMessageUtil {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SOAPMessageUtil.class);
 
+    private static final String SOAP_ACTION = "POST";
+
     private static volatile SOAPMessageUtil uniqueInstance = null;
 
+    private volatile RequestMetricsRecorder metricsRecorder = RequestMetrics.getInstance();
+
+    private volatile HttpConnectionPool connectionPool = null;
+
+    private final HttpConnectionPool streamPool = new HttpConnectionPool();
+
+    private volatile MessageFactory messageFactory = null;
+
+    private volatile SOAPConnectionFactory connectionFactory = null;
+
     private SOAPMessageUtil() {
 
     }
@@ -68,6 +86,29 @@ public class SOAPMessageUtil {
         return uniqueInstance;
     }
 
+    /**
+     * Enable the keep-alive connection pool mode. Messages are then sent over persistent HTTP
+     * connections of the pool with the timeout set on each connection, instead of opening a new
+     * SAAJ connection for every message.<br>
+     * 
+     * @param connectionPool Connection pool, null to disable the pool mode
+     * @since SDNO 0.5
+     */
+    public void setConnectionPool(HttpConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * Set the recorder of request counts and latencies. Default is the shared RequestMetrics
+     * instance.<br>
+     * 
+     * @param metricsRecorder Metrics recorder, null to disable metrics
+     * @since SDNO 0.5
+     */
+    public void setMetricsRecorder(RequestMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+    }
+
     /**
      * Send SOAP message. Use input bytes create a SOAP message object, and send it to the input
      * URL.<br>
@@ -79,24 +120,11 @@ public class SOAPMessageUtil {
      * @since SDNO 0.5
      */
     public SOAPMessage sendMessage(String msgUrl, byte[] bytes, final int timeout) {
-        SOAPConnectionFactory soapConnFactory;
         SOAPConnection connection = null;
         try {
-            // Need to set timeout length in case it is too long.
-            URL url = new URL(new URL(msgUrl), "", new URLStreamHandler() {
-
-                @Override
-                protected URLConnection openConnection(URL url) throws IOException {
-                    URL target = new URL(url.toString());
-                    URLConnection urlconn = target.openConnection();
-                    // Connection settings
-                    urlconn.setConnectTimeout(timeout);
-                    urlconn.setReadTimeout(timeout);
-                    return urlconn;
-                }
-            });
-            soapConnFactory = SOAPConnectionFactory.newInstance();
-            connection = soapConnFactory.createConnection();
+            HttpConnectionPool pool = connectionPool;
+            URL url = createUrl(msgUrl, pool, timeout);
+            connection = createConnection(pool, timeout);
             if(connection == null) {
                 LOGGER.error("createConnection fail!url=" + msgUrl);
                 return null;
@@ -104,7 +132,7 @@ public class SOAPMessageUtil {
             SOAPMessage sendMsg = createMessage(bytes);
             if(sendMsg != null) {
                 LOGGER.info("Call java rpc[url=" + url.toString() + ",message=" + changeSoapMsgToStr(sendMsg) + "]");
-                SOAPMessage reply = connection.call(sendMsg, url);
+                SOAPMessage reply = call(connection, sendMsg, url, bytes.length);
                 LOGGER.info("Call java rpc response[" + changeSoapMsgToStr(sendMsg) + "]");
                 return reply;
             } else {
@@ -140,31 +168,17 @@ public class SOAPMessageUtil {
      * @since SDNO 0.5
      */
     public SOAPMessage sendMessage(SOAPMessage message, String urlPath, final int timeout) {
-        SOAPConnectionFactory soapConnFactory;
         SOAPConnection connection = null;
         try {
-
-            soapConnFactory = SOAPConnectionFactory.newInstance();
-            connection = soapConnFactory.createConnection();
+            HttpConnectionPool pool = connectionPool;
+            connection = createConnection(pool, timeout);
             if(connection == null) {
                 LOGGER.error("createConnection fail!");
                 return null;
             }
-            // Need to set timeout length in case it is too long.
-            URL url = new URL(new URL(urlPath), "", new URLStreamHandler() {
-
-                @Override
-                protected URLConnection openConnection(URL url) throws IOException {
-                    URL target = new URL(url.toString());
-                    URLConnection connection = target.openConnection();
-                    // Connection settings
-                    connection.setConnectTimeout(timeout);
-                    connection.setReadTimeout(timeout);
-                    return connection;
-                }
-            });
+            URL url = createUrl(urlPath, pool, timeout);
             LOGGER.info("Call java rpc[url=" + url.toString() + ",message=" + changeSoapMsgToStr(message) + "]");
-            SOAPMessage reply = connection.call(message, url);
+            SOAPMessage reply = call(connection, message, url, -1);
             LOGGER.info("Call java rpc response[" + changeSoapMsgToStr(message) + "]");
             return reply;
         } catch(UnsupportedOperationException e) {
@@ -187,6 +201,200 @@ public class SOAPMessageUtil {
         return null;
     }
 
+    /**
+     * Send input SOAP message object to the input URL and return the response for streaming.
+     * The response body is read with StAX while it is received, so the memory used does not
+     * depend on the size of the response. The configured connection pool is used, or a pool of
+     * this instance if none is configured. The returned response must be closed by the caller.<br>
+     * 
+     * @param message The message to be sent
+     * @param urlPath URL which identifies where the message should be sent.
+     * @param timeout Timeout length
+     * @return Streamed response
+     * @throws SOAPException if sending fails or the response is not a SOAP response
+     * @since SDNO 0.5
+     */
+    public SOAPStreamResponse sendMessageForStream(SOAPMessage message, String urlPath, final int timeout)
+            throws SOAPException {
+        HttpConnectionPool pool = connectionPool;
+        if(pool == null) {
+            pool = streamPool;
+        }
+
+        URL url;
+        try {
+            url = new URL(urlPath);
+        } catch(MalformedURLException e) {
+            throw new SOAPException("Bad endpoint " + urlPath, e);
+        }
+        if(LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Call java rpc[url=" + url.toString() + ",message=" + changeSoapMsgToStr(message) + "]");
+        }
+
+        RequestMetricsRecorder recorder = metricsRecorder;
+        long startTime = System.currentTimeMillis();
+        int status = 0;
+        try {
+            PooledSOAPConnection connection = new PooledSOAPConnection(pool, getMessageFactory(), timeout);
+            connection.setMetricsRecorder(recorder);
+            HttpURLConnection conn = connection.send(message, url);
+            status = conn.getResponseCode();
+            try {
+                InputStream body = PooledSOAPConnection.getResponseStream(conn);
+                if((body != null) && (recorder != null)) {
+                    body = new MeteredInputStream(body, recorder, url, SOAP_ACTION);
+                }
+                return new SOAPStreamResponse(pool, conn, body);
+            } catch(IOException e) {
+                pool.discard(conn);
+                throw new SOAPException("Read SOAP response from " + url + " failed", e);
+            }
+        } catch(IOException e) {
+            throw new SOAPException("Read SOAP response from " + url + " failed", e);
+        } finally {
+            if(recorder != null) {
+                recorder.recordRequest(url, SOAP_ACTION, status, System.currentTimeMillis() - startTime);
+            }
+        }
+    }
+
+    /**
+     * Send input SOAP message object to the input URL and pass every element of the response
+     * body with the input local name to the handler, without building the whole response in
+     * memory.<br>
+     * 
+     * @param message The message to be sent
+     * @param urlPath URL which identifies where the message should be sent.
+     * @param timeout Timeout length
+     * @param localName Local name of the elements to handle
+     * @param handler Element handler
+     * @return true if the response is read successfully, false otherwise
+     * @since SDNO 0.5
+     */
+    public boolean sendMessage(SOAPMessage message, String urlPath, final int timeout, String localName,
+            SOAPElementHandler handler) {
+        SOAPStreamResponse response = null;
+        try {
+            response = sendMessageForStream(message, urlPath, timeout);
+            response.parse(localName, handler);
+            return true;
+        } catch(SOAPException e) {
+            LOGGER.warn("sendMessage fail!url=" + urlPath, e);
+        } finally {
+            if(response != null) {
+                response.close();
+            }
+        }
+        return false;
+    }
+
+    private SOAPConnection createConnection(HttpConnectionPool pool, int timeout) throws SOAPException {
+        if(pool != null) {
+            PooledSOAPConnection connection = new PooledSOAPConnection(pool, getMessageFactory(), timeout);
+            connection.setMetricsRecorder(metricsRecorder);
+            return connection;
+        }
+        return getConnectionFactory().createConnection();
+    }
+
+    private URL createUrl(String msgUrl, HttpConnectionPool pool, final int timeout) throws MalformedURLException {
+        if(pool != null) {
+            // Pooled connections apply the timeout themselves.
+            return new URL(msgUrl);
+        }
+
+        // Need to set timeout length in case it is too long.
+        return new URL(new URL(msgUrl), "", new URLStreamHandler() {
+
+            @Override
+            protected URLConnection openConnection(URL url) throws IOException {
+                URL target = new URL(url.toString());
+                URLConnection urlconn = target.openConnection();
+                // Connection settings
+                urlconn.setConnectTimeout(timeout);
+                urlconn.setReadTimeout(timeout);
+                return urlconn;
+            }
+        });
+    }
+
+    private MessageFactory getMessageFactory() throws SOAPException {
+        if(messageFactory == null) {
+            messageFactory = MessageFactory.newInstance();
+        }
+        return messageFactory;
+    }
+
+    private SOAPConnectionFactory getConnectionFactory() throws SOAPException {
+        if(connectionFactory == null) {
+            connectionFactory = SOAPConnectionFactory.newInstance();
+        }
+        return connectionFactory;
+    }
+
+    private SOAPMessage call(SOAPConnection connection, SOAPMessage message, URL url, long requestSize)
+            throws SOAPException {
+        RequestMetricsRecorder recorder = metricsRecorder;
+        // Pooled connections count the bytes on the HTTP streams, the SAAJ connection hides them,
+        // so only the sizes known without serializing the message again are recorded.
+        boolean countBytes = (recorder != null) && !(connection instanceof PooledSOAPConnection);
+        if(countBytes) {
+            recordBytesOut(recorder, url, (requestSize >= 0) ? requestSize : getMessageSize(message));
+        }
+
+        long startTime = System.currentTimeMillis();
+        int status = 0;
+        try {
+            SOAPMessage reply = connection.call(message, url);
+            // A fault is an error of the device even when it is delivered as a reply.
+            status = isFault(reply) ? HttpURLConnection.HTTP_INTERNAL_ERROR : HttpURLConnection.HTTP_OK;
+            if(countBytes && (reply != null)) {
+                long replySize = getMessageSize(reply);
+                if(replySize >= 0) {
+                    recorder.recordBytesIn(url, SOAP_ACTION, replySize);
+                }
+            }
+            return reply;
+        } finally {
+            if(recorder != null) {
+                recorder.recordRequest(url, SOAP_ACTION, status, System.currentTimeMillis() - startTime);
+            }
+        }
+    }
+
+    private static boolean isFault(SOAPMessage reply) {
+        if(reply == null) {
+            return false;
+        }
+        try {
+            return reply.getSOAPBody().hasFault();
+        } catch(SOAPException e) {
+            LOGGER.debug("Read SOAP body of the reply failed.", e);
+            return true;
+        }
+    }
+
+    private static void recordBytesOut(RequestMetricsRecorder recorder, URL url, long size) {
+        if(size >= 0) {
+            recorder.recordBytesOut(url, SOAP_ACTION, size);
+        }
+    }
+
+    /**
+     * Get the size of the message from its Content-Length header, -1 if it is unknown.
+     */
+    private static long getMessageSize(SOAPMessage message) {
+        String[] contentLength = message.getMimeHeaders().getHeader("Content-Length");
+        if((contentLength != null) && (contentLength.length > 0)) {
+            try {
+                return Long.parseLong(contentLength[0].trim());
+            } catch(NumberFormatException e) {
+                LOGGER.debug("Bad Content-Length " + contentLength[0], e);
+            }
+        }
+        return -1;
+    }
+
     /**
      * Construct SOAP message object by an byte array.<br>
      * 
@@ -200,8 +408,7 @@ public class SOAPMessageUtil {
         try {
             bais = new ByteArrayInputStream(bytes);
             MimeHeaders mimeHeaders = new MimeHeaders();
-            MessageFactory messageFactory = MessageFactory.newInstance();
-            message = messageFactory.createMessage(mimeHeaders, bais);
+            message = getMessageFactory().createMessage(mimeHeaders, bais);
         } catch(IOException e) {
             LOGGER.warn("createMessage failed!", e);
         } catch(SOAPException e) {
@@ -240,5 +447,4 @@ public class SOAPMessageUtil {
         return null;
 
     }
-
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.soap;
+
+import javax.xml.soap.SOAPMessage;
+
+/**
+ * Callback notified when an asynchronous SOAP request completes.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-17
+ */
+public interface SOAPResponseCallback {
+
+    /**
+     * Called in the worker thread when the request completes. Failures are reported the same way
+     * as the synchronous SOAPMessageUtil calls do, by a null response.<br>
+     *
+     * @param response Response message, null if sending failed
+     * @since SDNO 0.5
+     */
+    void onComplete(SOAPMessage response);
+}
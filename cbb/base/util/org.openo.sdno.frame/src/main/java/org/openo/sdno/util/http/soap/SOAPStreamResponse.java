@@ -0,0 +1,227 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.soap;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+
+import javax.xml.soap.SOAPException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+import org.apache.commons.io.IOUtils;
+import org.openo.sdno.util.http.HttpConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SOAP response whose body is read with StAX while it is received.<br>
+ * <p>
+ * No SAAJ message or DOM tree is built, so the memory used does not depend on the size of the
+ * response. A SOAP fault in the body is reported as SOAPException. The response must be closed
+ * after use, which frees the connection.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-14
+ */
+public class SOAPStreamResponse implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SOAPStreamResponse.class);
+
+    private static final String SOAP11_ENV_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    private static final String SOAP12_ENV_NS = "http://www.w3.org/2003/05/soap-envelope";
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final HttpConnectionPool connectionPool;
+
+    private final HttpURLConnection conn;
+
+    private final InputStream body;
+
+    private DepthTrackingReader reader;
+
+    private int bodyDepth;
+
+    private boolean closed = false;
+
+    SOAPStreamResponse(HttpConnectionPool connectionPool, HttpURLConnection conn, InputStream body) {
+        this.connectionPool = connectionPool;
+        this.conn = conn;
+        this.body = (body == null) ? new ByteArrayInputStream(new byte[0]) : body;
+    }
+
+    /**
+     * Get the reader of the SOAP body. On the first call the reader is moved to the first child
+     * element of the body, or to the end of the body if it is empty.<br>
+     *
+     * @return Reader of the body content
+     * @throws SOAPException if the response is not a SOAP envelope or is a SOAP fault
+     * @since SDNO 0.5
+     */
+    public XMLStreamReader getBodyReader() throws SOAPException {
+        if(reader == null) {
+            try {
+                reader = new DepthTrackingReader(INPUT_FACTORY.createXMLStreamReader(body));
+                moveToBodyContent();
+            } catch(XMLStreamException e) {
+                throw new SOAPException("Parse SOAP response failed", e);
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * Read the body and pass every element with the local name to the handler. Matching
+     * elements inside a handled element are not passed again.<br>
+     *
+     * @param localName Local name of the elements to handle
+     * @param handler Element handler
+     * @throws SOAPException if the response is not a SOAP envelope, is a SOAP fault, or the
+     *             handler fails
+     * @since SDNO 0.5
+     */
+    public void parse(String localName, SOAPElementHandler handler) throws SOAPException {
+        getBodyReader();
+        try {
+            while(!((reader.getEventType() == XMLStreamConstants.END_ELEMENT) && (reader.depth < bodyDepth))) {
+                if(reader.getEventType() == XMLStreamConstants.END_DOCUMENT) {
+                    throw new SOAPException("Unexpected end of SOAP response");
+                }
+
+                if((reader.getEventType() == XMLStreamConstants.START_ELEMENT)
+                        && localName.equals(reader.getLocalName())) {
+                    int elementDepth = reader.depth;
+                    handler.onElement(reader);
+                    while(reader.depth >= elementDepth) {
+                        reader.next();
+                    }
+                } else {
+                    reader.next();
+                }
+            }
+        } catch(XMLStreamException e) {
+            throw new SOAPException("Parse SOAP response failed", e);
+        }
+    }
+
+    /**
+     * Close the response and free the connection.<br>
+     *
+     * @since SDNO 0.5
+     */
+    @Override
+    public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        if(reader != null) {
+            try {
+                reader.close();
+            } catch(XMLStreamException e) {
+                LOGGER.debug("Close SOAP response reader failed. ", e);
+            }
+        }
+        IOUtils.closeQuietly(body);
+        connectionPool.release(conn);
+    }
+
+    private void moveToBodyContent() throws XMLStreamException, SOAPException {
+        while(reader.hasNext()) {
+            if((reader.next() == XMLStreamConstants.START_ELEMENT) && isEnvelopeElement("Body")) {
+                bodyDepth = reader.depth;
+                if((reader.nextTag() == XMLStreamConstants.START_ELEMENT) && isEnvelopeElement("Fault")) {
+                    throw new SOAPException("SOAP fault: " + readFaultString());
+                }
+                return;
+            }
+        }
+        throw new SOAPException("SOAP response has no body");
+    }
+
+    private String readFaultString() throws XMLStreamException {
+        int faultDepth = reader.depth;
+        while(reader.depth >= faultDepth) {
+            if((reader.next() == XMLStreamConstants.START_ELEMENT)
+                    && ("faultstring".equals(reader.getLocalName()) || "Text".equals(reader.getLocalName()))) {
+                return reader.getElementText();
+            }
+        }
+        return "";
+    }
+
+    private boolean isEnvelopeElement(String localName) {
+        String namespace = reader.getNamespaceURI();
+        return localName.equals(reader.getLocalName())
+                && (SOAP11_ENV_NS.equals(namespace) || SOAP12_ENV_NS.equals(namespace));
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * Reader which counts the open elements, so that the rest of an element can be skipped
+     * whatever a handler has read of it.
+     */
+    private static class DepthTrackingReader extends StreamReaderDelegate {
+
+        int depth;
+
+        DepthTrackingReader(XMLStreamReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            return track(super.next());
+        }
+
+        @Override
+        public int nextTag() throws XMLStreamException {
+            return track(super.nextTag());
+        }
+
+        @Override
+        public String getElementText() throws XMLStreamException {
+            String text = super.getElementText();
+            depth--;
+            return text;
+        }
+
+        private int track(int event) {
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if(event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+            return event;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets.<br>
+ * <p>
+ * Values below 32 are counted exactly. Larger values are counted in 16 buckets per power of two,
+ * so a reported percentile is at most 1/16 above the real value. Values are clamped to
+ * Integer.MAX_VALUE.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-7
+ */
+public class LatencyHistogram {
+
+    private static final int EXACT_LIMIT = 32;
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final long MAX_VALUE = Integer.MAX_VALUE;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(getIndex(MAX_VALUE) + 1);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.<br>
+     *
+     * @param value Value to record, negative values are counted as 0
+     * @since SDNO 0.5
+     */
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+        buckets.incrementAndGet(getIndex(clamped));
+        count.incrementAndGet();
+        sum.addAndGet(clamped);
+
+        long current = max.get();
+        while((clamped > current) && !max.compareAndSet(current, clamped)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * @return Returns the number of recorded values.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return Returns the largest recorded value.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return Returns the mean of the recorded values, 0 if there is none.
+     */
+    public double getMean() {
+        long total = count.get();
+        return (total == 0) ? 0 : (double)sum.get() / total;
+    }
+
+    /**
+     * Get the value below or at which the given percentage of the recorded values are.<br>
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of the bucket of the percentile, 0 if there is no value
+     * @since SDNO 0.5
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] counts = new long[buckets.length()];
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if(total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long)Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long cumulative = 0;
+        for(int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if(cumulative >= target) {
+                return Math.min(getUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int getIndex(long value) {
+        if(value < EXACT_LIMIT) {
+            return (int)value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int)(value >>> shift) - SUB_BUCKETS;
+        return EXACT_LIMIT + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long getUpperBound(int index) {
+        if(index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = (index - EXACT_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (index - EXACT_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
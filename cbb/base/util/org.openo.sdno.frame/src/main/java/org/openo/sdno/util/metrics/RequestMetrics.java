@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.metrics;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default request metrics recorder, counting requests per host and action.<br>
+ * <p>
+ * Requests, errors (no response or status 400 and above), bytes in and out and a latency
+ * histogram are kept for every host and action. Recording only uses atomic counters, and
+ * getSnapshot() can be called at any time, for example by the health check.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-7
+ */
+public class RequestMetrics implements RequestMetricsRecorder {
+
+    private static final RequestMetrics INSTANCE = new RequestMetrics();
+
+    private static final int ERROR_STATUS = 400;
+
+    private final ConcurrentMap<String, RequestStats> stats = new ConcurrentHashMap<String, RequestStats>();
+
+    /**
+     * Get the instance used by default by HTTPSender and SOAPMessageUtil.<br>
+     *
+     * @return Shared instance
+     * @since SDNO 0.5
+     */
+    public static RequestMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void recordRequest(URL url, String action, int status, long latency) {
+        RequestStats item = getStats(url, action);
+        item.requests.incrementAndGet();
+        if((status <= 0) || (status >= ERROR_STATUS)) {
+            item.errors.incrementAndGet();
+        }
+        item.latency.record(latency);
+    }
+
+    @Override
+    public void recordBytesOut(URL url, String action, long bytes) {
+        getStats(url, action).bytesOut.addAndGet(bytes);
+    }
+
+    @Override
+    public void recordBytesIn(URL url, String action, long bytes) {
+        getStats(url, action).bytesIn.addAndGet(bytes);
+    }
+
+    /**
+     * Get the current metrics of every host and action.<br>
+     *
+     * @return Metrics snapshots
+     * @since SDNO 0.5
+     */
+    public List<RequestStatsSnapshot> getSnapshot() {
+        List<RequestStatsSnapshot> snapshots = new ArrayList<RequestStatsSnapshot>();
+        for(Entry<String, RequestStats> entry : stats.entrySet()) {
+            RequestStats item = entry.getValue();
+            RequestStatsSnapshot snapshot = new RequestStatsSnapshot();
+            snapshot.setHost(item.host);
+            snapshot.setAction(item.action);
+            snapshot.setRequestCount(item.requests.get());
+            snapshot.setErrorCount(item.errors.get());
+            snapshot.setBytesIn(item.bytesIn.get());
+            snapshot.setBytesOut(item.bytesOut.get());
+            snapshot.setMeanLatency(item.latency.getMean());
+            snapshot.setP50Latency(item.latency.getValueAtPercentile(50));
+            snapshot.setP90Latency(item.latency.getValueAtPercentile(90));
+            snapshot.setP99Latency(item.latency.getValueAtPercentile(99));
+            snapshot.setMaxLatency(item.latency.getMax());
+            snapshots.add(snapshot);
+        }
+        return snapshots;
+    }
+
+    /**
+     * Remove all recorded metrics.<br>
+     *
+     * @since SDNO 0.5
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    private RequestStats getStats(URL url, String action) {
+        int port = (url.getPort() == -1) ? url.getDefaultPort() : url.getPort();
+        String host = url.getHost() + ":" + port;
+        String key = host + " " + action;
+        RequestStats item = stats.get(key);
+        if(item == null) {
+            RequestStats newItem = new RequestStats(host, action);
+            item = stats.putIfAbsent(key, newItem);
+            if(item == null) {
+                item = newItem;
+            }
+        }
+        return item;
+    }
+
+    private static class RequestStats {
+
+        final String host;
+
+        final String action;
+
+        final AtomicLong requests = new AtomicLong();
+
+        final AtomicLong errors = new AtomicLong();
+
+        final AtomicLong bytesIn = new AtomicLong();
+
+        final AtomicLong bytesOut = new AtomicLong();
+
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        RequestStats(String host, String action) {
+            this.host = host;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.metrics;
+
+import java.net.URL;
+
+/**
+ * Recorder of southbound request metrics, used by HTTPSender and SOAPMessageUtil.<br>
+ * <p>
+ * It is called on the request thread, so implementations must be thread safe and must not block.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-7
+ */
+public interface RequestMetricsRecorder {
+
+    /**
+     * Record a finished request.<br>
+     *
+     * @param url Request URL
+     * @param action Request method, like GET, POST and so on
+     * @param status Response status, 0 if no response was received
+     * @param latency Time in milliseconds until the response was received
+     * @since SDNO 0.5
+     */
+    void recordRequest(URL url, String action, int status, long latency);
+
+    /**
+     * Record bytes sent in a request body.<br>
+     *
+     * @param url Request URL
+     * @param action Request method
+     * @param bytes Number of bytes sent
+     * @since SDNO 0.5
+     */
+    void recordBytesOut(URL url, String action, long bytes);
+
+    /**
+     * Record bytes received in a response body.<br>
+     *
+     * @param url Request URL
+     * @param action Request method
+     * @param bytes Number of bytes received
+     * @since SDNO 0.5
+     */
+    void recordBytesIn(URL url, String action, long bytes);
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.metrics;
+
+/**
+ * Metrics of the requests to one host with one action, at the time the snapshot was taken.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-7
+ */
+public class RequestStatsSnapshot {
+
+    /**
+     * Host and port of the target.
+     */
+    private String host;
+
+    /**
+     * Request method.
+     */
+    private String action;
+
+    /**
+     * Number of requests.
+     */
+    private long requestCount;
+
+    /**
+     * Number of requests without response or with status 400 and above.
+     */
+    private long errorCount;
+
+    /**
+     * Number of response body bytes.
+     */
+    private long bytesIn;
+
+    /**
+     * Number of request body bytes.
+     */
+    private long bytesOut;
+
+    /**
+     * Mean latency in milliseconds.
+     */
+    private double meanLatency;
+
+    /**
+     * Median latency in milliseconds.
+     */
+    private long p50Latency;
+
+    /**
+     * 90th percentile latency in milliseconds.
+     */
+    private long p90Latency;
+
+    /**
+     * 99th percentile latency in milliseconds.
+     */
+    private long p99Latency;
+
+    /**
+     * Maximum latency in milliseconds.
+     */
+    private long maxLatency;
+
+    /**
+     * @return Returns the host.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @param host The host to set.
+     */
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    /**
+     * @return Returns the action.
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * @param action The action to set.
+     */
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    /**
+     * @return Returns the requestCount.
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @param requestCount The requestCount to set.
+     */
+    public void setRequestCount(long requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    /**
+     * @return Returns the errorCount.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @param errorCount The errorCount to set.
+     */
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    /**
+     * @return Returns the bytesIn.
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * @param bytesIn The bytesIn to set.
+     */
+    public void setBytesIn(long bytesIn) {
+        this.bytesIn = bytesIn;
+    }
+
+    /**
+     * @return Returns the bytesOut.
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * @param bytesOut The bytesOut to set.
+     */
+    public void setBytesOut(long bytesOut) {
+        this.bytesOut = bytesOut;
+    }
+
+    /**
+     * @return Returns the meanLatency.
+     */
+    public double getMeanLatency() {
+        return meanLatency;
+    }
+
+    /**
+     * @param meanLatency The meanLatency to set.
+     */
+    public void setMeanLatency(double meanLatency) {
+        this.meanLatency = meanLatency;
+    }
+
+    /**
+     * @return Returns the p50Latency.
+     */
+    public long getP50Latency() {
+        return p50Latency;
+    }
+
+    /**
+     * @param p50Latency The p50Latency to set.
+     */
+    public void setP50Latency(long p50Latency) {
+        this.p50Latency = p50Latency;
+    }
+
+    /**
+     * @return Returns the p90Latency.
+     */
+    public long getP90Latency() {
+        return p90Latency;
+    }
+
+    /**
+     * @param p90Latency The p90Latency to set.
+     */
+    public void setP90Latency(long p90Latency) {
+        this.p90Latency = p90Latency;
+    }
+
+    /**
+     * @return Returns the p99Latency.
+     */
+    public long getP99Latency() {
+        return p99Latency;
+    }
+
+    /**
+     * @param p99Latency The p99Latency to set.
+     */
+    public void setP99Latency(long p99Latency) {
+        this.p99Latency = p99Latency;
+    }
+
+    /**
+     * @return Returns the maxLatency.
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * @param maxLatency The maxLatency to set.
+     */
+    public void setMaxLatency(long maxLatency) {
+        this.maxLatency = maxLatency;
+    }
+}
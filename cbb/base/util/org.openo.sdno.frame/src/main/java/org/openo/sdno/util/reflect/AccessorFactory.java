@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Factory of cached field accessors and getter methods.<br>
+ * <p>
+ * The lookup of a field or getter, and making it accessible, is done once per class and name,
+ * including the lookups which find nothing. Field accessors are held by the FieldModel of the
+ * cached ClassModel, getters by a table attached to the class through a ClassValue, so neither
+ * prevents the class from being unloaded.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-24
+ */
+public final class AccessorFactory {
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final ClassValue<ConcurrentMap<String, Object>> GETTERS =
+            new ClassValue<ConcurrentMap<String, Object>>() {
+
+                @Override
+                protected ConcurrentMap<String, Object> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<String, Object>();
+                }
+            };
+
+    private AccessorFactory() {
+
+    }
+
+    /**
+     * Get the accessor of the field, declared in the class or in one of its super classes.<br>
+     * 
+     * @param clazz Class object
+     * @param fieldName Field name
+     * @return Field accessor, null if the class has no such field
+     * @since SDNO 0.5
+     */
+    public static FieldAccessor getFieldAccessor(Class<?> clazz, String fieldName) {
+        FieldModel field = ClassModel.of(clazz).getField(fieldName);
+        return (field == null) ? null : field.getAccessor();
+    }
+
+    /**
+     * Get the public getter of the field, named "get" followed by the field name with the first
+     * letter in upper case, or else followed by the field name unchanged.<br>
+     * 
+     * @param clazz Class object
+     * @param fieldName Field name
+     * @return Getter method, null if the class has no such getter
+     * @since SDNO 0.5
+     */
+    public static Method getGetter(Class<?> clazz, String fieldName) {
+        ConcurrentMap<String, Object> getters = GETTERS.get(clazz);
+        Object getter = getters.get(fieldName);
+        if(getter == null) {
+            Method method = findGetter(clazz, fieldName);
+            getter = (method == null) ? NOT_FOUND : method;
+            Object cached = getters.putIfAbsent(fieldName, getter);
+            if(cached != null) {
+                getter = cached;
+            }
+        }
+        return (getter == NOT_FOUND) ? null : (Method)getter;
+    }
+
+    private static Method findGetter(Class<?> clazz, String fieldName) {
+        String getter = "get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+        try {
+            return clazz.getMethod(getter);
+        } catch(NoSuchMethodException e) {
+            try {
+                return clazz.getMethod("get" + fieldName);
+            } catch(NoSuchMethodException ex) {
+                return null;
+            }
+        }
+    }
+}
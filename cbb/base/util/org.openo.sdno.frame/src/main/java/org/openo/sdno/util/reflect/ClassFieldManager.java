@@ -17,27 +17,20 @@
 package org.openo.sdno.util.reflect;
 
 import java.lang.reflect.Field;
-import java.util.Hashtable;
 import java.util.List;
-import java.util.Map;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Reflect to lookup field or class definition.<br>
+ * <p>
+ * The lookups are answered by the cached ClassModel of the class, which indexes its fields by
+ * name, so a lookup neither allocates a key nor takes a global lock.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 2016-4-13
  */
 public class ClassFieldManager {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(ClassFieldManager.class);
-
-    private final Map<FieldKey, Field> fieldCache = new Hashtable<FieldKey, Field>();
-
-    private final Map<Class, List<Field>> allFieldCache = new Hashtable<Class, List<Field>>();
-
     private static final ClassFieldManager INSTANCE = new ClassFieldManager();
 
     private ClassFieldManager() {
@@ -63,16 +56,8 @@ public class ClassFieldManager {
      * @since SDNO 0.5
      */
     public Field getFiled(Class<?> clazz, String fieldName) {
-        FieldKey key = new FieldKey(clazz.getName(), fieldName);
-        if(!fieldCache.containsKey(key)) {
-            Field field = getNamedField(clazz, fieldName);
-            if(field != null) {
-                fieldCache.put(key, field);
-            }
-            return field;
-        } else {
-            return fieldCache.get(key);
-        }
+        FieldModel field = ClassModel.of(clazz).getField(fieldName);
+        return (field == null) ? null : field.getField();
     }
 
     /**
@@ -83,31 +68,7 @@ public class ClassFieldManager {
      * @since SDNO 0.5
      */
     public List<Field> getAllField(Class clazz) {
-        if(allFieldCache.containsKey(clazz)) {
-            return allFieldCache.get(clazz);
-        } else {
-            List<Field> fields = JavaEntityUtil.getAllField(clazz);
-            allFieldCache.put(clazz, fields);
-            return fields;
-        }
-    }
-
-    private Field getNamedField(Class<?> clazz, String fieldName) {
-        Field field = null;
-        try {
-            field = clazz.getDeclaredField(fieldName);
-        } catch(SecurityException e) {
-            LOGGER.warn("", e);
-        } catch(NoSuchFieldException e) {
-            LOGGER.warn("", e);
-            // If current class does not have the field, looking for super class.
-            Class<?> superclass = clazz.getSuperclass();
-            if(superclass != null) {
-                field = getNamedField(superclass, fieldName);
-            }
-        }
-
-        return field;
+        return ClassModel.of(clazz).getFieldList();
     }
 }
 
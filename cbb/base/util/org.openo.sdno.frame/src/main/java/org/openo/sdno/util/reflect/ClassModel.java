@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable model of the fields of a class, including the public, private, and parent class
+ * fields.<br>
+ * <p>
+ * The model is built once per class and cached, it is the table behind
+ * ClassFieldManager.getFiled and AccessorFactory.getFieldAccessor. The fields are in the order of
+ * JavaEntityUtil.getAllField: the fields of the class first, then the fields of each super class.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-26
+ */
+public final class ClassModel {
+
+    private static final ClassValue<ClassModel> MODELS = new ClassValue<ClassModel>() {
+
+        @Override
+        protected ClassModel computeValue(Class<?> type) {
+            return new ClassModel(type);
+        }
+    };
+
+    private final Class<?> type;
+
+    private final List<Field> fieldList;
+
+    private final List<FieldModel> fields;
+
+    private final List<FieldModel> checkedFields;
+
+    private final Map<String, FieldModel> fieldIndex;
+
+    private ClassModel(Class<?> type) {
+        this.type = type;
+
+        Set<Field> allFields = new LinkedHashSet<Field>();
+        Map<String, Field> namedFields = new HashMap<String, Field>();
+        for(Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            for(Field field : clazz.getDeclaredFields()) {
+                allFields.add(field);
+                // The field declared nearest to the class hides the fields of the super classes.
+                if(!namedFields.containsKey(field.getName())) {
+                    namedFields.put(field.getName(), field);
+                }
+            }
+            Collections.addAll(allFields, clazz.getFields());
+        }
+
+        List<FieldModel> models = new ArrayList<FieldModel>(allFields.size());
+        List<FieldModel> checked = new ArrayList<FieldModel>();
+        Map<String, FieldModel> index = new HashMap<String, FieldModel>(allFields.size() * 2);
+        for(Field field : allFields) {
+            FieldModel model = new FieldModel(field);
+            models.add(model);
+            if(model.getCheckAttr() != null) {
+                checked.add(model);
+            }
+            if(namedFields.get(field.getName()) == field) {
+                index.put(field.getName(), model);
+            }
+        }
+
+        this.fieldList = Collections.unmodifiableList(new ArrayList<Field>(allFields));
+        this.fields = Collections.unmodifiableList(models);
+        this.checkedFields = Collections.unmodifiableList(checked);
+        this.fieldIndex = index;
+    }
+
+    /**
+     * Get the model of the class.<br>
+     * 
+     * @param clazz Class object
+     * @return Cached model of the class
+     * @since SDNO 0.5
+     */
+    public static ClassModel of(Class<?> clazz) {
+        return MODELS.get(clazz);
+    }
+
+    /**
+     * @return Returns the type.
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Get all fields of the class.<br>
+     * 
+     * @return Unmodifiable list of fields
+     * @since SDNO 0.5
+     */
+    public List<Field> getFieldList() {
+        return fieldList;
+    }
+
+    /**
+     * Get the models of all fields of the class.<br>
+     * 
+     * @return Unmodifiable list of field models
+     * @since SDNO 0.5
+     */
+    public List<FieldModel> getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the models of the fields with the CheckAttr annotation.<br>
+     * 
+     * @return Unmodifiable list of field models
+     * @since SDNO 0.5
+     */
+    public List<FieldModel> getCheckedFields() {
+        return checkedFields;
+    }
+
+    /**
+     * Get the model of the field with the name, declared in the class or else in the nearest super
+     * class declaring it.<br>
+     * 
+     * @param fieldName Field name
+     * @return Field model, null if the class has no such field
+     * @since SDNO 0.5
+     */
+    public FieldModel getField(String fieldName) {
+        return fieldIndex.get(fieldName);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openo.sdno.exception.InnerErrorServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mapper which binds maps of field names and values to objects of one class.<br>
+ * <p>
+ * The fields of the class, their accessors and their value converters are resolved once when the
+ * mapper is created, and the mapper of each class is cached. Binding a map then only looks up
+ * each key in the name index, converts the value and sets the field.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-25
+ * @param <T> Type of the mapped objects
+ */
+public final class EntityMapper<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EntityMapper.class);
+
+    private static final ClassValue<EntityMapper<?>> MAPPERS = new ClassValue<EntityMapper<?>>() {
+
+        @Override
+        protected EntityMapper<?> computeValue(Class<?> type) {
+            return new EntityMapper<Object>(type);
+        }
+    };
+
+    private final Class<T> type;
+
+    private final Map<String, FieldBinding> bindings;
+
+    @SuppressWarnings("unchecked")
+    private EntityMapper(Class<?> type) {
+        this.type = (Class<T>)type;
+        List<FieldModel> fields = ClassModel.of(type).getFields();
+        this.bindings = new HashMap<String, FieldBinding>(fields.size() * 2);
+        for(FieldModel field : fields) {
+            String name = field.getName();
+            if(bindings.containsKey(name)) {
+                continue;
+            }
+            // Values are set to the field found by name, which hides fields of the super classes.
+            FieldAccessor accessor = AccessorFactory.getFieldAccessor(type, name);
+            if(accessor != null) {
+                bindings.put(name, new FieldBinding(accessor));
+            }
+        }
+    }
+
+    /**
+     * Get the mapper of the class.<br>
+     * 
+     * @param clazz Class of the mapped objects
+     * @return Cached mapper of the class
+     * @since SDNO 0.5
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMapper<T> forClass(Class<T> clazz) {
+        return (EntityMapper<T>)MAPPERS.get(clazz);
+    }
+
+    /**
+     * @return Returns the type.
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Create an object and set the fields whose names are keys of the map. Keys which are not
+     * field names are ignored.<br>
+     * 
+     * @param values Map of field names and values
+     * @return New object
+     * @throws InnerErrorServiceException if create class object failed
+     * @since SDNO 0.5
+     */
+    public T map(Map<String, Object> values) throws InnerErrorServiceException {
+        T obj = newInstance();
+        for(Map.Entry<String, Object> entry : values.entrySet()) {
+            FieldBinding binding = bindings.get(entry.getKey());
+            if(binding != null) {
+                binding.bind(obj, entry.getValue());
+            }
+        }
+        return obj;
+    }
+
+    /**
+     * Create one object for each map.<br>
+     * 
+     * @param valuesList Collection of maps of field names and values
+     * @return Objects in the order of the maps
+     * @throws InnerErrorServiceException if create class object failed
+     * @since SDNO 0.5
+     */
+    public List<T> mapAll(List<Map<String, Object>> valuesList) throws InnerErrorServiceException {
+        List<T> objList = new ArrayList<T>(valuesList.size());
+        for(Map<String, Object> values : valuesList) {
+            objList.add(map(values));
+        }
+        return objList;
+    }
+
+    private T newInstance() throws InnerErrorServiceException {
+        try {
+            return type.newInstance();
+        } catch(InstantiationException | IllegalAccessException e) {
+            LOGGER.error(e.toString());
+            throw new InnerErrorServiceException(e);
+        }
+    }
+
+    private static class FieldBinding {
+
+        private final FieldAccessor accessor;
+
+        private final Class<?> fieldType;
+
+        private final ValueConverter converter;
+
+        FieldBinding(FieldAccessor accessor) {
+            this.accessor = accessor;
+            this.fieldType = accessor.getType();
+            this.converter = ValueConverter.forType(fieldType);
+        }
+
+        void bind(Object obj, Object value) {
+            try {
+                accessor.set(obj, converter.convert(fieldType, value));
+            } catch(IllegalArgumentException | IllegalStateException e) {
+                LOGGER.warn("", e);
+            }
+        }
+    }
+}
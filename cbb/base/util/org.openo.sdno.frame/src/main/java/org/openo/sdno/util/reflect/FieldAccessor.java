@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import java.lang.reflect.Field;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+/**
+ * Accessor of one field, made accessible once when the accessor is created.<br>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-24
+ */
+public final class FieldAccessor {
+
+    private final Field field;
+
+    FieldAccessor(final Field field) {
+        AccessController.doPrivileged(new PrivilegedAction<Object>() {
+
+            @Override
+            public Object run() {
+                field.setAccessible(true);
+                return null;
+            }
+        });
+        this.field = field;
+    }
+
+    /**
+     * Get the field value.<br>
+     * 
+     * @param target The object containing the field, null for a static field
+     * @return Field value
+     * @throws IllegalArgumentException if the object does not contain the field
+     * @since SDNO 0.5
+     */
+    public Object get(Object target) {
+        try {
+            return field.get(target);
+        } catch(IllegalAccessException e) {
+            // The field is accessible, so this only happens with a security manager denying it.
+            throw new IllegalStateException("Field is not accessible: " + field, e);
+        }
+    }
+
+    /**
+     * Set the field value.<br>
+     * 
+     * @param target The object containing the field, null for a static field
+     * @param value The value wanting to set
+     * @throws IllegalArgumentException if the object does not contain the field or the value does
+     *             not match the field type
+     * @since SDNO 0.5
+     */
+    public void set(Object target, Object value) {
+        try {
+            field.set(target, value);
+        } catch(IllegalAccessException e) {
+            throw new IllegalStateException("Field is not accessible: " + field, e);
+        }
+    }
+
+    /**
+     * @return Returns the field.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return Returns the field name.
+     */
+    public String getName() {
+        return field.getName();
+    }
+
+    /**
+     * @return Returns the field type.
+     */
+    public Class<?> getType() {
+        return field.getType();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Map;
+
+import org.openo.sdno.check.CheckAttr;
+
+/**
+ * Immutable description of one field of a class model.<br>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-26
+ */
+public final class FieldModel {
+
+    private final Field field;
+
+    private final Class<?> elementType;
+
+    private final boolean container;
+
+    private final CheckAttr checkAttr;
+
+    private volatile FieldAccessor accessor;
+
+    FieldModel(Field field) {
+        this.field = field;
+        Class<?> type = field.getType();
+        this.container = Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
+        this.elementType = JavaEntityUtil.getFiledType(field);
+        this.checkAttr = field.getAnnotation(CheckAttr.class);
+    }
+
+    /**
+     * @return Returns the field.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return Returns the field name.
+     */
+    public String getName() {
+        return field.getName();
+    }
+
+    /**
+     * @return Returns the field type.
+     */
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    /**
+     * Get the generic element type if the field is a container, otherwise the field type.<br>
+     * 
+     * @return Element type
+     * @since SDNO 0.5
+     */
+    public Class<?> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * @return Returns true if the field is a collection or a map.
+     */
+    public boolean isContainer() {
+        return container;
+    }
+
+    /**
+     * @return Returns true if the field is an enumeration.
+     */
+    public boolean isEnum() {
+        return field.getType().isEnum();
+    }
+
+    /**
+     * @return Returns the check annotation of the field, null if the field is not checked.
+     */
+    public CheckAttr getCheckAttr() {
+        return checkAttr;
+    }
+
+    /**
+     * Get the accessor of the field, created and made accessible on the first call. It is the
+     * accessor returned by AccessorFactory for the field. Threads racing on the first call may
+     * each create an equivalent accessor, later calls get the one which was stored.<br>
+     * 
+     * @return Field accessor
+     * @since SDNO 0.5
+     */
+    public FieldAccessor getAccessor() {
+        FieldAccessor current = accessor;
+        if(current == null) {
+            current = new FieldAccessor(field);
+            accessor = current;
+        }
+        return current;
+    }
+}
@@ -16,15 +16,21 @@
 
 package org.openo.sdno.util.reflect;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.openo.sdno.exception.InnerErrorServiceException;
 import org.slf4j.Logger;
@@ -53,10 +59,10 @@ public class JavaEntityUtil {
      */
     private static String[] getFiledName(Object o) throws InnerErrorServiceException {
         try {
-            List<Field> fields = JavaEntityUtil.getAllField(o.getClass());
+            List<FieldModel> fields = ClassModel.of(o.getClass()).getFields();
             String[] fieldNames = new String[fields.size()];
             int i = 0;
-            for(Field field : fields) {
+            for(FieldModel field : fields) {
                 fieldNames[i++] = field.getName();
             }
             return fieldNames;
@@ -80,29 +86,17 @@ public class JavaEntityUtil {
         if(value != null) {
             return value;
         }
+        Method method = AccessorFactory.getGetter(o.getClass(), fieldName);
+        if(method == null) {
+            LOGGER.warn("No getter of field " + fieldName + " in " + o.getClass().getName());
+            return null;
+        }
         try {
-            String firstLetter = fieldName.substring(0, 1).toUpperCase();
-            String getter = "get" + firstLetter + fieldName.substring(1);
-            Method method = getMethod(fieldName, o, getter);
-            return method.invoke(o, new Object[] {});
-        } catch(NoSuchMethodException ex) {
-            LOGGER.warn("", ex);
+            return method.invoke(o);
         } catch(Exception e) {
             LOGGER.error(e.getMessage());
             throw new InnerErrorServiceException(e);
         }
-        return null;
-    }
-
-    private static Method getMethod(String fieldName, Object o, String getter) throws NoSuchMethodException {
-        Method method = null;
-        try {
-            method = o.getClass().getMethod(getter, new Class[] {});
-        } catch(Exception e) {
-            LOGGER.warn("getFieldValueByName getMethod error.", e);
-            method = o.getClass().getMethod("get" + fieldName, new Class[] {});
-        }
-        return method;
     }
 
     /**
@@ -115,30 +109,8 @@ public class JavaEntityUtil {
      * @since SDNO 0.5
      */
     public static Object setFieldValue(Field field, Object o, Object value) {
-        Object v = value;
-        if(field.getType().isEnum()) {
-            v = ReflectionUtil.newEnumInstance(field.getType(), v.toString());
-        }
-        // If the field type in the Java class is not consistent with the assigned parameter, a
-        // strong rotation is required. After the incoming object is converted to a string, the
-        // parse method is used to parse the incoming object. The data type supported by the current
-        // is integer, float, and long.
-        if((v != null) && !field.getType().equals(v.getClass())) {
-            try {
-                if(field.getType().equals(Long.class)) {
-                    v = Long.parseLong(v.toString());
-                } else if(field.getType().equals(Float.class)) {
-                    v = Float.parseFloat(v.toString());
-                } else if(field.getType().equals(Integer.class)) {
-                    v = Integer.parseInt(v.toString());
-                } else {
-                    LOGGER.warn("Dismatch type for class is " + field.getType().toString() + " but value is "
-                            + v.getClass().toString());
-                }
-            } catch(NumberFormatException e) {
-                LOGGER.warn(e.getMessage());
-            }
-        }
+        Class<?> fieldType = field.getType();
+        Object v = ValueConverter.forType(fieldType).convert(fieldType, value);
         ReflectionUtil.setFieldValue(o, field.getName(), v);
         return o;
     }
@@ -186,26 +158,10 @@ public class JavaEntityUtil {
      */
     public static List<Object> getValueObjectList(List<Map<String, Object>> mapList, Class clazz)
             throws InnerErrorServiceException {
-        List<Object> valueList = new ArrayList<Object>();
-
-        try {
-            List<Field> fieldList = JavaEntityUtil.getAllField(clazz);
-
-            for(Map<String, Object> amap : mapList) {
-                Object o = clazz.newInstance();
-                for(Field field : fieldList) {
-                    if(amap.containsKey(field.getName())) {
-                        setFieldValue(field, o, amap.get(field.getName()));
-                    }
-                }
-                valueList.add(o);
-            }
-        } catch(InstantiationException e) {
-            LOGGER.error(e.toString());
-            throw new InnerErrorServiceException(e);
-        } catch(IllegalAccessException e) {
-            LOGGER.error(e.toString());
-            throw new InnerErrorServiceException(e);
+        List<Object> valueList = new ArrayList<Object>(mapList.size());
+        EntityMapper<?> mapper = EntityMapper.forClass(clazz);
+        for(Map<String, Object> amap : mapList) {
+            valueList.add(mapper.map(amap));
         }
         return valueList;
     }
@@ -218,22 +174,7 @@ public class JavaEntityUtil {
      * @since SDNO 0.5
      */
     public static List<Field> getAllField(Class clazz) {
-        List<Field> allfield = new ArrayList<Field>();
-        Field[] fields = clazz.getDeclaredFields();
-        for(Field field : fields) {
-            allfield.add(field);
-        }
-        fields = clazz.getFields();
-        for(Field field : fields) {
-            if(!allfield.contains(field)) {
-                allfield.add(field);
-            }
-        }
-        Class<?> superclass = clazz.getSuperclass();
-        if(superclass != null) {
-            JavaEntityUtil.getFields(superclass, allfield);
-        }
-        return allfield;
+        return new ArrayList<Field>(ClassModel.of(clazz).getFieldList());
     }
 
     /**
@@ -244,27 +185,18 @@ public class JavaEntityUtil {
      * @since SDNO 0.5
      */
     public static void getFields(Class clazz, List<Field> allfield) {
-        Field[] fields = clazz.getDeclaredFields();
-        for(Field field : fields) {
-            if(!allfield.contains(field)) {
-                allfield.add(field);
-            }
-        }
-        fields = clazz.getFields();
-        for(Field field : fields) {
-            if(!allfield.contains(field)) {
+        Set<Field> existFields = new HashSet<Field>(allfield);
+        for(Field field : ClassModel.of(clazz).getFieldList()) {
+            if(existFields.add(field)) {
                 allfield.add(field);
             }
         }
-        Class<?> superclass = clazz.getSuperclass();
-        if(superclass != null) {
-            JavaEntityUtil.getFields(superclass, allfield);
-        }
     }
 
     /**
      * Gets the field type, and if the field is a container, the generic type in the container is
-     * taken.<br>
+     * taken. A generic type which is not a class, such as List&lt;T&gt; or List&lt;Map&lt;K, V&gt;&gt;,
+     * is reduced to its raw class.<br>
      * 
      * @param field The specified field
      * @return Field type
@@ -278,9 +210,28 @@ public class JavaEntityUtil {
             if(fc instanceof ParameterizedType) {
                 ParameterizedType pt = (ParameterizedType)fc;
                 // Get the class type object in the generic.
-                return (Class)pt.getActualTypeArguments()[0];
+                return getRawClass(pt.getActualTypeArguments()[0]);
             }
         }
         return fieldClazz;
     }
+
+    private static Class<?> getRawClass(Type type) {
+        if(type instanceof Class) {
+            return (Class<?>)type;
+        }
+        if(type instanceof ParameterizedType) {
+            return getRawClass(((ParameterizedType)type).getRawType());
+        }
+        if(type instanceof WildcardType) {
+            return getRawClass(((WildcardType)type).getUpperBounds()[0]);
+        }
+        if(type instanceof TypeVariable) {
+            return getRawClass(((TypeVariable<?>)type).getBounds()[0]);
+        }
+        if(type instanceof GenericArrayType) {
+            return Array.newInstance(getRawClass(((GenericArrayType)type).getGenericComponentType()), 0).getClass();
+        }
+        return Object.class;
+    }
 }
@@ -27,6 +27,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Tools class of reflection.<br>
+ * <p>
+ * Field values are read and written through the accessors cached by AccessorFactory, so the
+ * field lookup and the access check are done once per class and field instead of on every call.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 2016-5-19
@@ -49,19 +53,11 @@ public class ReflectionUtil {
      */
     public static Object getFieldValue(Object object, String fieldName) {
         try {
-            final Field field = ClassFieldManager.getInstance().getFiled(object.getClass(), fieldName);
-            if(field != null) {
-                AccessController.doPrivileged(new PrivilegedAction<Object>() {
-
-                    @Override
-                    public Object run() {
-                        field.setAccessible(true);
-                        return null;
-                    }
-                });
-                return field.get(object);
+            FieldAccessor accessor = AccessorFactory.getFieldAccessor(object.getClass(), fieldName);
+            if(accessor != null) {
+                return accessor.get(object);
             }
-        } catch(IllegalArgumentException | IllegalAccessException | SecurityException e) {
+        } catch(IllegalArgumentException | IllegalStateException e) {
             LOGGER.warn("", e);
         }
         return null;
@@ -77,19 +73,11 @@ public class ReflectionUtil {
      */
     public static Object getFieldValue(Class<?> classVar, String fieldName) {
         try {
-            final Field field = ClassFieldManager.getInstance().getFiled(classVar, fieldName);
-            if(field != null) {
-                AccessController.doPrivileged(new PrivilegedAction<Object>() {
-
-                    @Override
-                    public Object run() {
-                        field.setAccessible(true);
-                        return null;
-                    }
-                });
-                return field.get(null);
+            FieldAccessor accessor = AccessorFactory.getFieldAccessor(classVar, fieldName);
+            if(accessor != null) {
+                return accessor.get(null);
             }
-        } catch(IllegalArgumentException | IllegalAccessException e) {
+        } catch(IllegalArgumentException | IllegalStateException e) {
             LOGGER.warn("", e);
         }
         return null;
@@ -105,20 +93,11 @@ public class ReflectionUtil {
      */
     public static void setFieldValue(Object object, String fieldName, Object value) {
         try {
-            final Field field = ClassFieldManager.getInstance().getFiled(object.getClass(), fieldName);
-            if(field != null) {
-                AccessController.doPrivileged(new PrivilegedAction<Object>() {
-
-                    @Override
-                    public Object run() {
-                        field.setAccessible(true);
-                        return null;
-                    }
-                });
-                field.set(object, value);
-                return;
+            FieldAccessor accessor = AccessorFactory.getFieldAccessor(object.getClass(), fieldName);
+            if(accessor != null) {
+                accessor.set(object, value);
             }
-        } catch(IllegalArgumentException | IllegalAccessException e) {
+        } catch(IllegalArgumentException | IllegalStateException e) {
             LOGGER.warn("", e);
         }
     }
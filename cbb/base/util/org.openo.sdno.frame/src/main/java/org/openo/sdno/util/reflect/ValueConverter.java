@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Conversion of a value to the type of the field it is set to.<br>
+ * <p>
+ * The conversion is chosen once from the field type, then applied to each value. A value which
+ * can not be converted is returned unchanged.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-25
+ */
+enum ValueConverter {
+
+    /**
+     * Values are kept as they are.
+     */
+    NONE {
+
+        @Override
+        Object doConvert(Class<?> type, Object value) {
+            LOGGER.warn("Dismatch type for class is " + type.toString() + " but value is "
+                    + value.getClass().toString());
+            return value;
+        }
+    },
+
+    /**
+     * Values are converted to the enumeration constant with the same name.
+     */
+    ENUM {
+
+        @Override
+        Object doConvert(Class<?> type, Object value) {
+            return ReflectionUtil.newEnumInstance(type, value.toString());
+        }
+    },
+
+    /**
+     * Values are parsed to Long.
+     */
+    LONG {
+
+        @Override
+        Object doConvert(Class<?> type, Object value) {
+            return Long.parseLong(value.toString());
+        }
+    },
+
+    /**
+     * Values are parsed to Float.
+     */
+    FLOAT {
+
+        @Override
+        Object doConvert(Class<?> type, Object value) {
+            return Float.parseFloat(value.toString());
+        }
+    },
+
+    /**
+     * Values are parsed to Integer.
+     */
+    INTEGER {
+
+        @Override
+        Object doConvert(Class<?> type, Object value) {
+            return Integer.parseInt(value.toString());
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValueConverter.class);
+
+    /**
+     * Get the converter of the field type.<br>
+     * 
+     * @param type Field type
+     * @return Converter of the type
+     * @since SDNO 0.5
+     */
+    static ValueConverter forType(Class<?> type) {
+        if(type.isEnum()) {
+            return ENUM;
+        } else if(type.equals(Long.class)) {
+            return LONG;
+        } else if(type.equals(Float.class)) {
+            return FLOAT;
+        } else if(type.equals(Integer.class)) {
+            return INTEGER;
+        }
+        return NONE;
+    }
+
+    /**
+     * Convert the value to the field type.<br>
+     * 
+     * @param type Field type
+     * @param value Value to convert
+     * @return Converted value, or the value itself if it already has the field type or can not be
+     *         converted
+     * @since SDNO 0.5
+     */
+    Object convert(Class<?> type, Object value) {
+        if((value == null) || type.equals(value.getClass())) {
+            return value;
+        }
+        try {
+            return doConvert(type, value);
+        } catch(NumberFormatException e) {
+            LOGGER.warn(e.getMessage());
+            return value;
+        }
+    }
+
+    abstract Object doConvert(Class<?> type, Object value);
+}
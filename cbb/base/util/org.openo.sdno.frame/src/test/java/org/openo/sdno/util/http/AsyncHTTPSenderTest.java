@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * AsyncHTTPSender test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-10
+ */
+public class AsyncHTTPSenderTest {
+
+    private final Set<TokenCache> usedCaches = Collections.newSetFromMap(new IdentityHashMap<TokenCache, Boolean>());
+
+    private AsyncHTTPSender asyncSender;
+
+    private volatile boolean nonDaemonUsed;
+
+    @Before
+    public void setUp() {
+        HTTPSender sender = new HTTPSender() {
+
+            @Override
+            public HTTPReturnMessage restInvoke(HTTPRequestMessage request, Map<String, String> authInfo) {
+                if(!Thread.currentThread().isDaemon()) {
+                    nonDaemonUsed = true;
+                }
+                return getResponse(request);
+            }
+
+            @Override
+            public HTTPReturnMessage restInvoke(HTTPRequestMessage authReq, HTTPRequestMessage request,
+                    TokenCache cache) {
+                synchronized(usedCaches) {
+                    usedCaches.add(cache);
+                }
+                return getResponse(request);
+            }
+        };
+        asyncSender = new AsyncHTTPSender(sender, 2);
+    }
+
+    @After
+    public void tearDown() {
+        asyncSender.shutdown();
+    }
+
+    @Test
+    public void testRestInvokeBatchKeepsOrder() {
+        List<HTTPReturnMessage> responses = asyncSender.restInvokeBatch(createRequests(20), null);
+        assertEquals(20, responses.size());
+        for(int i = 0; i < responses.size(); i++) {
+            assertEquals("/resource/" + i, responses.get(i).getBody());
+        }
+    }
+
+    @Test
+    public void testDefaultPoolUsesDaemonThreads() {
+        asyncSender.restInvokeBatch(createRequests(10), null);
+        assertFalse(nonDaemonUsed);
+    }
+
+    @Test
+    public void testRestInvokeBatchSharesToken() {
+        HTTPRequestMessage authReq = new HTTPRequestMessage("https://test/login", "{}", "PUT");
+        List<HTTPReturnMessage> responses = asyncSender.restInvokeBatch(authReq, createRequests(10));
+        assertEquals(10, responses.size());
+        assertEquals(1, usedCaches.size());
+        assertTrue(responses.get(9).isSuccess());
+    }
+
+    private static List<HTTPRequestMessage> createRequests(int count) {
+        List<HTTPRequestMessage> requests = new ArrayList<HTTPRequestMessage>();
+        for(int i = 0; i < count; i++) {
+            requests.add(new HTTPRequestMessage("https://test/resource/" + i, "{}", "PUT"));
+        }
+        return requests;
+    }
+
+    private static HTTPReturnMessage getResponse(HTTPRequestMessage request) {
+        HTTPReturnMessage response = new HTTPReturnMessage();
+        response.setStatus(200);
+        response.setBody(request.getUrl().substring("https://test".length()));
+        return response;
+    }
+}
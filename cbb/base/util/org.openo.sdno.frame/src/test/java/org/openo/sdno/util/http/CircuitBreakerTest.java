@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+
+import org.junit.Test;
+
+/**
+ * CircuitBreaker test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-5
+ */
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpenAndHalfOpen() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(2, 0L);
+        URL url = new URL("https://test:8443/a");
+
+        breaker.onFailure(url);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(url));
+        breaker.onFailure(url);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(url));
+
+        assertTrue(breaker.allowRequest(url));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(url));
+        assertFalse(breaker.allowRequest(new URL("https://test:8443/b")));
+
+        breaker.onFailure(url);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(url));
+        assertTrue(breaker.allowRequest(url));
+        breaker.onSuccess(url, "GET", 10);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(url));
+        assertTrue(breaker.allowRequest(url));
+    }
+
+    @Test
+    public void testOpenCircuitFailsFast() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60000L);
+        URL url = new URL("https://test");
+        breaker.onFailure(url);
+        assertFalse(breaker.allowRequest(url));
+        assertTrue(breaker.allowRequest(new URL("https://other")));
+    }
+
+    @Test
+    public void testAdaptiveReadTimeout() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker();
+        URL url = new URL("https://test");
+        assertEquals(300000, breaker.getReadTimeout(url, "GET", 300000));
+
+        for(int i = 0; i < 100; i++) {
+            breaker.onSuccess(url, "GET", 2000);
+        }
+        assertEquals(8000, breaker.getReadTimeout(url, "GET", 300000));
+        assertEquals(6000, breaker.getReadTimeout(url, "GET", 6000));
+        assertEquals(300000, breaker.getReadTimeout(url, "POST", 300000));
+
+        breaker.setAdaptiveReadTimeout(false);
+        assertEquals(300000, breaker.getReadTimeout(url, "GET", 300000));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * HTTPRequestBody test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-29
+ */
+public class HTTPRequestBodyTest {
+
+    private static final byte[] CONTENT = "{\"name\":\"test\"}".getBytes();
+
+    @Test
+    public void testByteArrayBody() throws IOException {
+        HTTPRequestBody body = HTTPRequestBody.create(CONTENT);
+        assertEquals(CONTENT.length, body.getLength());
+        assertArrayEquals(CONTENT, write(body));
+        assertArrayEquals(CONTENT, write(body));
+    }
+
+    @Test
+    public void testHeapBufferBody() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CONTENT.length + 4);
+        buffer.position(2);
+        buffer.put(CONTENT);
+        buffer.flip();
+        buffer.position(2);
+
+        HTTPRequestBody body = HTTPRequestBody.create(buffer);
+        assertEquals(CONTENT.length, body.getLength());
+        assertArrayEquals(CONTENT, write(body));
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void testDirectBufferBody() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CONTENT.length);
+        buffer.put(CONTENT);
+        buffer.flip();
+
+        HTTPRequestBody body = HTTPRequestBody.create(buffer);
+        assertArrayEquals(CONTENT, write(body));
+        assertArrayEquals(CONTENT, write(body));
+        assertEquals(0, buffer.position());
+    }
+
+    private static byte[] write(HTTPRequestBody body) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        body.writeTo(os);
+        return os.toByteArray();
+    }
+}
@@ -17,16 +17,26 @@
 package org.openo.sdno.util.http;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 
@@ -236,4 +246,280 @@ public class HTTPSenderTest {
             fail("NetMatrixJsonUtil parser failed." + e.getMessage());
         }
     }
+
+    @Test
+    public void testRestInvokeWithTokenCache() {
+        final int[] authCount = new int[] {0};
+        final int[] sendCount = new int[] {0};
+        new MockUp<HTTPSender>() {
+
+            @Mock
+            protected HttpURLConnection sendMsg(HTTPRequestMessage requst, Map<String, String> authInfo,
+                    HTTPReturnMessage response, boolean isAuth)
+                    throws IOException, NoSuchProviderException, NoSuchAlgorithmException, ServiceException {
+                URL url = new URL("https://test");
+                if(isAuth) {
+                    authCount[0]++;
+                    response.setToken("token" + authCount[0]);
+                    response.setBody("{\"data\": {\"token_id\": \"token" + authCount[0] + "\"}}");
+                    response.setStatus(200);
+                } else {
+                    sendCount[0]++;
+                    // The first token is rejected once.
+                    response.setStatus("token1".equals(authInfo.get("X-ACCESS-TOKEN")) && (sendCount[0] == 2) ? 401
+                            : 200);
+                }
+                return new TestHttpURLConnection(url);
+            }
+        };
+
+        HTTPRequestMessage authReq = new HTTPRequestMessage("https://test", "{\"user\": \"netmatrix\"}", "PUT");
+        HTTPRequestMessage request = new HTTPRequestMessage("https://test2", "{}", "POST");
+        HTTPSender sender = new HTTPSender();
+        sender.setTokenCache(new TokenCache());
+
+        HTTPReturnMessage msg = sender.restInvoke(authReq, request);
+        assertEquals(200, msg.getStatus());
+        assertEquals(1, authCount[0]);
+
+        msg = sender.restInvoke(authReq, request);
+        assertEquals(200, msg.getStatus());
+        assertEquals("Test string in TestHttpURLConnection.getInputStream().", msg.getBody());
+        assertEquals(2, authCount[0]);
+        assertEquals(3, sendCount[0]);
+
+        sender.restInvoke(authReq, request);
+        assertEquals(2, authCount[0]);
+    }
+
+    @Test
+    public void testRestInvokeWithBodyHandler() {
+        new MockUp<HTTPSender>() {
+
+            @Mock
+            protected HttpURLConnection sendMsg(HTTPRequestMessage requst, Map<String, String> authInfo,
+                    HTTPReturnMessage response, boolean isAuth)
+                    throws IOException, NoSuchProviderException, NoSuchAlgorithmException, ServiceException {
+                URL url = new URL("https://test");
+                response.setStatus(200);
+                return new TestHttpURLConnection(url);
+            }
+        };
+
+        final StringBuilder body = new StringBuilder();
+        HTTPReturnMessage msg = new HTTPSender().restInvoke("https://test", "", "GET", null, new HTTPBodyHandler() {
+
+            @Override
+            public void onChunk(char[] chunk, int offset, int length) {
+                body.append(chunk, offset, length);
+            }
+        });
+        assertEquals(200, msg.getStatus());
+        assertEquals("", msg.getBody());
+        assertEquals("testGetHeaderField", msg.getToken());
+        assertEquals("Test string in TestHttpURLConnection.getInputStream().", body.toString());
+    }
+
+    @Test
+    public void testRestInvokeStream() throws Exception {
+        new MockUp<HTTPSender>() {
+
+            @Mock
+            protected HttpURLConnection sendMsg(HTTPRequestMessage requst, Map<String, String> authInfo,
+                    HTTPReturnMessage response, boolean isAuth)
+                    throws IOException, NoSuchProviderException, NoSuchAlgorithmException, ServiceException {
+                URL url = new URL("https://test");
+                response.setStatus(500);
+                return new TestHttpURLConnection(url);
+            }
+        };
+
+        HTTPStreamResponse response = new HTTPSender().restInvokeStream("https://test", "", "GET", null);
+        try {
+            assertEquals(500, response.getStatus());
+            assertEquals("Test string in TestHttpURLConnection.getErrorStream().",
+                    IOUtils.toString(response.getInputStream(), "UTF-8"));
+        } finally {
+            response.close();
+        }
+    }
+
+    @Test
+    public void testRestInvokeGzipResponse() {
+        new MockUp<HTTPSender>() {
+
+            @Mock
+            protected HttpURLConnection sendMsg(HTTPRequestMessage requst, Map<String, String> authInfo,
+                    HTTPReturnMessage response, boolean isAuth)
+                    throws IOException, NoSuchProviderException, NoSuchAlgorithmException, ServiceException {
+                response.setStatus(200);
+                return new TestHttpURLConnection(new URL("https://test")) {
+
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        try (GZIPOutputStream gzipOs = new GZIPOutputStream(bytes)) {
+                            gzipOs.write("{\"name\":\"test\"}".getBytes("UTF-8"));
+                        }
+                        return new ByteArrayInputStream(bytes.toByteArray());
+                    }
+
+                    @Override
+                    public String getContentEncoding() {
+                        return "gzip";
+                    }
+                };
+            }
+        };
+
+        HTTPReturnMessage msg = new HTTPSender().restInvoke("https://test", "", "GET", null);
+        assertEquals(200, msg.getStatus());
+        assertEquals("{\"name\":\"test\"}", msg.getBody());
+    }
+
+    @Test
+    public void testGetResponseStreamOfEmptyGzipBody() throws Exception {
+        TestHttpURLConnection conn = new TestHttpURLConnection(new URL("https://test")) {
+
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            @Override
+            public String getContentEncoding() {
+                return "gzip";
+            }
+        };
+
+        assertEquals("", IOUtils.toString(new HTTPSender().getResponseStream(conn), "UTF-8"));
+    }
+
+    @Test
+    public void testAcceptGzipIsOptIn() throws Exception {
+        final List<HttpURLConnection> opened = new ArrayList<HttpURLConnection>();
+        HTTPSender sender = new HTTPSender() {
+
+            @Override
+            protected HttpURLConnection getHttpURLConnection(String urlStr, Map<String, String> authInfo,
+                    String action) throws IOException, NoSuchProviderException, NoSuchAlgorithmException {
+                HttpURLConnection conn = super.getHttpURLConnection(urlStr, authInfo, action);
+                opened.add(conn);
+                throw new IOException("Not sent.");
+            }
+        };
+        sender.setMetricsRecorder(null);
+
+        sender.restInvoke("http://localhost:1/devices", "", "GET", null);
+        assertEquals(null, opened.get(0).getRequestProperty("Accept-Encoding"));
+
+        sender.setAcceptGzip(true);
+        sender.restInvoke("http://localhost:1/devices", "", "GET", null);
+        assertEquals("gzip", opened.get(1).getRequestProperty("Accept-Encoding"));
+    }
+
+    @Test
+    public void testSendGzipRequest() throws Exception {
+        final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        TestHttpURLConnection conn = new TestHttpURLConnection(new URL("https://test")) {
+
+            @Override
+            public OutputStream getOutputStream() {
+                return sent;
+            }
+        };
+
+        HTTPSender sender = new HTTPSender();
+        sender.setGzipRequestThreshold(8);
+        sender.sendHttpMsg("{\"name\":\"test\"}", "POST", conn);
+
+        assertEquals("gzip", conn.getRequestProperty("Content-Encoding"));
+        assertEquals("{\"name\":\"test\"}",
+                IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(sent.toByteArray())), "UTF-8"));
+    }
+
+    @Test
+    public void testRestInvokeCircuitOpen() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60000L);
+        breaker.onFailure(new URL("https://test"));
+
+        HTTPSender sender = new HTTPSender();
+        sender.setCircuitBreaker(breaker);
+        HTTPReturnMessage msg = sender.restInvoke("https://test/devices", "", "GET", null);
+        assertEquals(CircuitBreaker.SC_CIRCUIT_OPEN, msg.getStatus());
+
+        HTTPRequestMessage authReq = new HTTPRequestMessage("https://test/login", "", "PUT");
+        HTTPRequestMessage request = new HTTPRequestMessage("https://test/devices", "", "GET");
+        assertEquals(CircuitBreaker.SC_CIRCUIT_OPEN, sender.restInvoke(authReq, request).getStatus());
+    }
+
+    @Test
+    public void testRestInvokeSNCWithSingleConnectionPool() throws Exception {
+        final HttpConnectionPool pool = new HttpConnectionPool(1, 60000L);
+        HTTPSender sender = new HTTPSender() {
+
+            @Override
+            protected HttpURLConnection getHttpURLConnection(String urlStr, Map<String, String> authInfo,
+                    String action) throws IOException {
+                HttpURLConnection conn = new TestHttpURLConnection(new URL(urlStr)) {
+
+                    @Override
+                    public int getResponseCode() {
+                        return 200;
+                    }
+
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        return IOUtils.toInputStream("{\"data\": {\"token_id\": \"token1\"}}", "UTF-8");
+                    }
+                };
+                pool.acquire(conn, 100);
+                return conn;
+            }
+        };
+        sender.setConnectionPool(pool);
+
+        HTTPRequestMessage authReq = new HTTPRequestMessage("https://test/login", "", "PUT");
+        HTTPRequestMessage request = new HTTPRequestMessage("https://test/devices", "", "GET");
+        HTTPReturnMessage msg = sender.restInvoke(authReq, request);
+        assertEquals(200, msg.getStatus());
+        assertEquals("{\"data\": {\"token_id\": \"token1\"}}", msg.getBody());
+        assertEquals(0, pool.getLeasedCount(new URL("https://test")));
+    }
+
+    @Test
+    public void testRuntimeExceptionReleasesPoolAndCircuit() throws Exception {
+        final HttpConnectionPool pool = new HttpConnectionPool(1, 60000L);
+        HTTPSender sender = new HTTPSender() {
+
+            @Override
+            protected HttpURLConnection getHttpURLConnection(String urlStr, Map<String, String> authInfo,
+                    String action) throws IOException {
+                HttpURLConnection conn = new TestHttpURLConnection(new URL(urlStr)) {
+
+                    @Override
+                    public int getResponseCode() {
+                        throw new IllegalStateException("Broken response.");
+                    }
+                };
+                pool.acquire(conn, 100);
+                return conn;
+            }
+        };
+        URL url = new URL("https://test");
+        CircuitBreaker breaker = new CircuitBreaker(1, 0L);
+        breaker.onFailure(url);
+        sender.setCircuitBreaker(breaker);
+        sender.setConnectionPool(pool);
+
+        try {
+            sender.restInvoke("https://test/devices", "", "GET", null);
+            fail("The runtime exception should be thrown.");
+        } catch(IllegalStateException e) {
+            assertEquals(0, pool.getLeasedCount(url));
+            // The half-open trial failed, so the next call is a new trial instead of being rejected.
+            assertEquals(CircuitBreaker.State.OPEN, breaker.getState(url));
+            assertTrue(breaker.allowRequest(url));
+        }
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+
+import org.junit.Test;
+
+/**
+ * HttpConnectionPool test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-20
+ */
+public class HttpConnectionPoolTest {
+
+    @Test
+    public void testAcquireAndRelease() throws IOException {
+        HttpConnectionPool pool = new HttpConnectionPool(1, 60000L);
+        URL url = new URL("https://test");
+
+        TestHttpURLConnection conn1 = new TestHttpURLConnection(url);
+        pool.acquire(conn1, 10);
+        assertEquals(1, pool.getLeasedCount(url));
+
+        try {
+            pool.acquire(new TestHttpURLConnection(url), 10);
+            fail("Acquire should time out when the host has no free connection.");
+        } catch(IOException e) {
+            assertEquals(1, pool.getLeasedCount(url));
+        }
+
+        pool.release(conn1);
+        assertEquals(0, pool.getLeasedCount(url));
+
+        TestHttpURLConnection conn2 = new TestHttpURLConnection(url);
+        pool.acquire(conn2, 10);
+        pool.discard(conn2);
+        assertEquals(0, pool.getLeasedCount(url));
+    }
+
+    @Test
+    public void testHostsAreLimitedSeparately() throws IOException {
+        HttpConnectionPool pool = new HttpConnectionPool(1, 60000L);
+        URL url1 = new URL("https://test1");
+        URL url2 = new URL("https://test2:8443");
+
+        pool.acquire(new TestHttpURLConnection(url1), 10);
+        pool.acquire(new TestHttpURLConnection(url2), 10);
+        assertEquals(1, pool.getLeasedCount(url1));
+        assertEquals(1, pool.getLeasedCount(url2));
+    }
+
+    @Test
+    public void testEvictionKeepsHostLimit() throws Exception {
+        final HttpConnectionPool pool = new HttpConnectionPool(1, 0L);
+        final URL url = new URL("https://test");
+        final AtomicInteger inUse = new AtomicInteger();
+        final AtomicInteger maxInUse = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for(int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws IOException {
+                        for(int j = 0; j < 500; j++) {
+                            TestHttpURLConnection conn = new TestHttpURLConnection(url);
+                            pool.acquire(conn, 5000);
+                            int count = inUse.incrementAndGet();
+                            int max = maxInUse.get();
+                            while((count > max) && !maxInUse.compareAndSet(max, count)) {
+                                max = maxInUse.get();
+                            }
+                            Thread.yield();
+                            inUse.decrementAndGet();
+                            pool.discard(conn);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for(Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(maxInUse.get() <= 1);
+        assertEquals(0, pool.getLeasedCount(url));
+    }
+
+    @Test
+    public void testSocketFactoryIsCached() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool();
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, null, null);
+        assertSame(pool.getSocketFactory(sslContext), pool.getSocketFactory(sslContext));
+    }
+
+    @Test
+    public void testGetHostKey() throws IOException {
+        assertEquals("https://test:443", HttpConnectionPool.getHostKey(new URL("https://test/a")));
+        assertEquals(HttpConnectionPool.getHostKey(new URL("http://test")),
+                HttpConnectionPool.getHostKey(new URL("http://test:80/b")));
+        assertEquals("http://test:443", HttpConnectionPool.getHostKey(new URL("http://test:443")));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.text.Normalizer;
+
+import org.junit.Test;
+
+/**
+ * NormalizingReader test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-27
+ */
+public class NormalizingReaderTest {
+
+    @Test
+    public void testSameAsWholeNormalization() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 5000; i++) {
+            text.append("{\"name\":\"\uFF21\uFF22\uFF23\",\"desc\":\"e\u0301\u30AB\u3099\uFB01\"}\n");
+        }
+        String expected = Normalizer.normalize(text.toString(), Normalizer.Form.NFKC);
+        assertEquals(expected, readAll(new NormalizingReader(new StringReader(text.toString()), Normalizer.Form.NFKC)));
+    }
+
+    @Test
+    public void testNonAsciiOnly() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 40000; i++) {
+            text.append('\uFF21');
+        }
+        String expected = Normalizer.normalize(text.toString(), Normalizer.Form.NFKC);
+        assertEquals(expected, readAll(new NormalizingReader(new StringReader(text.toString()), Normalizer.Form.NFKC)));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        assertEquals("", readAll(new NormalizingReader(new StringReader(""), Normalizer.Form.NFKC)));
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[100];
+        int count;
+        while((count = reader.read(buffer)) >= 0) {
+            result.append(buffer, 0, count);
+        }
+        reader.close();
+        return result.toString();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+
+/**
+ * TokenCache test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-24
+ */
+public class TokenCacheTest {
+
+    @Test
+    public void testTokenIsReused() throws ServiceException {
+        TokenCache cache = new TokenCache();
+        CountingLoader loader = new CountingLoader(0);
+
+        assertEquals("token1", cache.getToken("key", loader));
+        assertEquals("token1", cache.getToken("key", loader));
+        assertEquals(1, loader.count.get());
+    }
+
+    @Test
+    public void testExpiredTokenIsReloaded() throws Exception {
+        TokenCache cache = new TokenCache(20L);
+        CountingLoader loader = new CountingLoader(0);
+
+        assertEquals("token1", cache.getToken("key", loader));
+        Thread.sleep(30);
+        assertEquals("token2", cache.getToken("key", loader));
+    }
+
+    @Test
+    public void testShortLivedTokenIsReused() throws ServiceException {
+        TokenCache cache = new TokenCache();
+        CountingLoader loader = new CountingLoader(System.currentTimeMillis() + 20 * 1000L);
+
+        assertEquals("token1", cache.getToken("key", loader));
+        assertEquals("token1", cache.getToken("key", loader));
+    }
+
+    @Test
+    public void testPastExpiryUsesDefaultTtl() throws ServiceException {
+        TokenCache cache = new TokenCache();
+        CountingLoader loader = new CountingLoader(System.currentTimeMillis() - 60 * 1000L);
+
+        assertEquals("token1", cache.getToken("key", loader));
+        assertEquals("token1", cache.getToken("key", loader));
+    }
+
+    @Test
+    public void testInvalidate() throws ServiceException {
+        TokenCache cache = new TokenCache();
+        CountingLoader loader = new CountingLoader(0);
+
+        assertEquals("token1", cache.getToken("key", loader));
+        cache.invalidate("key", "other");
+        assertEquals("token1", cache.getToken("key", loader));
+        cache.invalidate("key", "token1");
+        assertEquals("token2", cache.getToken("key", loader));
+    }
+
+    @Test
+    public void testConcurrentLoadOnce() throws Exception {
+        final TokenCache cache = new TokenCache();
+        final CountingLoader loader = new CountingLoader(0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for(int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<String>() {
+
+                    @Override
+                    public String call() throws ServiceException {
+                        return cache.getToken("key", loader);
+                    }
+                }));
+            }
+            for(Future<String> result : results) {
+                assertEquals("token1", result.get());
+            }
+            assertEquals(1, loader.count.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBuildKey() {
+        String key = TokenCache.buildKey("https://test", "PUT", "{\"password\": \"secret\"}");
+        assertEquals(key, TokenCache.buildKey("https://test", "PUT", "{\"password\": \"secret\"}"));
+        assertFalse(key.contains("secret"));
+        assertFalse(key.equals(TokenCache.buildKey("https://test", "PUT", "{\"password\": \"other\"}")));
+    }
+
+    private static class CountingLoader implements TokenCache.TokenLoader {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        private final long expireTime;
+
+        CountingLoader(long expireTime) {
+            this.expireTime = expireTime;
+        }
+
+        @Override
+        public TokenCache.Token load() throws ServiceException {
+            try {
+                Thread.sleep(50);
+            } catch(InterruptedException e) {
+                throw new ServiceException(e);
+            }
+            return new TokenCache.Token("token" + count.incrementAndGet(), expireTime);
+        }
+    }
+}
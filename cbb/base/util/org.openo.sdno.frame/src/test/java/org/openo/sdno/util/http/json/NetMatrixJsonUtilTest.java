@@ -64,6 +64,31 @@ public class NetMatrixJsonUtilTest {
         }
     }
 
+    @Test
+    public void testParserRecursiveType() {
+        Map<String, Object> leafMap = new HashMap<String, Object>();
+        leafMap.put("name", "leaf");
+        Map<String, Object> rootMap = new HashMap<String, Object>();
+        rootMap.put("name", "root");
+        rootMap.put("next", leafMap);
+
+        TestParserNode root = NetMatrixJsonUtil.parser(rootMap, TestParserNode.class);
+        assertEquals("root", root.name);
+        assertEquals("leaf", root.next.name);
+        assertEquals(null, root.next.next);
+    }
+
+    @Test
+    public void testParserSkipsStaticFinalField() {
+        Map<String, Object> testMap = new HashMap<String, Object>();
+        testMap.put("TYPE", "other");
+        testMap.put("name", "constant");
+
+        TestParserConstant obj = NetMatrixJsonUtil.parser(testMap, TestParserConstant.class);
+        assertEquals("constant", obj.name);
+        assertEquals("fixed", TestParserConstant.TYPE);
+    }
+
     @Test
     public void testParser2() {
         new MockUp<Class>() {
@@ -95,3 +120,17 @@ public class NetMatrixJsonUtilTest {
     }
 
 }
+
+class TestParserNode {
+
+    String name;
+
+    TestParserNode next;
+}
+
+class TestParserConstant {
+
+    static final String TYPE = "fixed";
+
+    String name;
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.soap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPMessage;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.sdno.util.http.HttpConnectionPool;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * AsyncSOAPSender test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-17
+ */
+public class AsyncSOAPSenderTest {
+
+    private static final String RESPONSE =
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+                    + "<soapenv:Body><getResult>ok</getResult></soapenv:Body></soapenv:Envelope>";
+
+    private final Semaphore arrived = new Semaphore(0);
+
+    private final CountDownLatch proceed = new CountDownLatch(1);
+
+    private HttpServer server;
+
+    private String endpoint;
+
+    private MessageFactory messageFactory;
+
+    private AsyncSOAPSender asyncSender;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/soap", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                IOUtils.toByteArray(exchange.getRequestBody());
+                arrived.release();
+                try {
+                    proceed.await(10, TimeUnit.SECONDS);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = RESPONSE.getBytes("UTF-8");
+                exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/soap";
+
+        messageFactory = MessageFactory.newInstance();
+        SOAPMessageUtil.getInstance().setConnectionPool(new HttpConnectionPool());
+        asyncSender = new AsyncSOAPSender(SOAPMessageUtil.getInstance(), 1, 1);
+    }
+
+    @After
+    public void tearDown() {
+        proceed.countDown();
+        asyncSender.shutdown();
+        SOAPMessageUtil.getInstance().setConnectionPool(null);
+        server.stop(0);
+    }
+
+    @Test
+    public void testQueueIsBounded() throws Exception {
+        Future<SOAPMessage> first = asyncSender.sendMessage(messageFactory.createMessage(), endpoint, 5000, null);
+        assertTrue(arrived.tryAcquire(5, TimeUnit.SECONDS));
+        Future<SOAPMessage> second = asyncSender.sendMessage(messageFactory.createMessage(), endpoint, 5000, null);
+        assertEquals(1, asyncSender.getInFlightCount(endpoint));
+        assertEquals(1, asyncSender.getWaitingCount(endpoint));
+
+        try {
+            asyncSender.sendMessage(messageFactory.createMessage(), endpoint, 5000, null);
+            fail("Request beyond the queue limit should be rejected.");
+        } catch(RejectedExecutionException e) {
+            assertEquals(1, asyncSender.getWaitingCount(endpoint));
+        }
+
+        proceed.countDown();
+        assertEquals("ok", first.get(5, TimeUnit.SECONDS).getSOAPBody().getTextContent());
+        assertEquals("ok", second.get(5, TimeUnit.SECONDS).getSOAPBody().getTextContent());
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        asyncSender.setBatchSize(3);
+        List<Future<SOAPMessage>> futures = new ArrayList<Future<SOAPMessage>>();
+        futures.add(asyncSender.sendMessage(messageFactory.createMessage(), endpoint, 5000, null));
+        assertTrue(arrived.tryAcquire(5, TimeUnit.SECONDS));
+
+        for(int i = 0; i < 3; i++) {
+            futures.add(asyncSender.sendMessage(messageFactory.createMessage(), endpoint, 5000, null));
+        }
+        assertEquals(1, asyncSender.getWaitingCount(endpoint));
+
+        try {
+            asyncSender.sendMessage(messageFactory.createMessage(), endpoint, 5000, null);
+            fail("Batch beyond the queue limit should be rejected.");
+        } catch(RejectedExecutionException e) {
+            assertEquals(1, asyncSender.getWaitingCount(endpoint));
+        }
+
+        proceed.countDown();
+        for(Future<SOAPMessage> future : futures) {
+            assertEquals("ok", future.get(5, TimeUnit.SECONDS).getSOAPBody().getTextContent());
+        }
+    }
+
+    @Test
+    public void testShutDownExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        AsyncSOAPSender sender = new AsyncSOAPSender(SOAPMessageUtil.getInstance(), executor, 1, 1);
+        final List<SOAPMessage> responses = new ArrayList<SOAPMessage>();
+        SOAPResponseCallback callback = new SOAPResponseCallback() {
+
+            @Override
+            public void onComplete(SOAPMessage response) {
+                responses.add(response);
+            }
+        };
+
+        assertRejected(sender.sendMessage(messageFactory.createMessage(), endpoint, 5000, callback));
+        sender.setBatchSize(3);
+        for(int i = 0; i < 2; i++) {
+            assertRejected(sender.sendMessage(messageFactory.createMessage(), endpoint, 5000, callback));
+        }
+        assertEquals(3, responses.size());
+        assertEquals(null, responses.get(2));
+        assertEquals(0, sender.getInFlightCount(endpoint));
+    }
+
+    private static void assertRejected(Future<SOAPMessage> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Request should fail when the executor rejects it.");
+        } catch(ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
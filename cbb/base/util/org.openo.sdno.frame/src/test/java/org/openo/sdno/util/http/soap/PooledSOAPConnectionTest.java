@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.soap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPMessage;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.sdno.util.http.HttpConnectionPool;
+import org.openo.sdno.util.metrics.RequestMetricsRecorder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * PooledSOAPConnection test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-12
+ */
+public class PooledSOAPConnectionTest {
+
+    private static final String RESPONSE =
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+                    + "<soapenv:Body><getResult>ok</getResult></soapenv:Body></soapenv:Envelope>";
+
+    private HttpServer server;
+
+    private String endpoint;
+
+    private volatile String soapAction;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/soap", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                soapAction = exchange.getRequestHeaders().getFirst("SOAPAction");
+                IOUtils.toByteArray(exchange.getRequestBody());
+                byte[] body = RESPONSE.getBytes("UTF-8");
+                exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/soap";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCall() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(1, 60000L);
+        MessageFactory messageFactory = MessageFactory.newInstance();
+
+        for(int i = 0; i < 3; i++) {
+            PooledSOAPConnection connection = new PooledSOAPConnection(pool, messageFactory, 5000);
+            SOAPMessage reply = connection.call(messageFactory.createMessage(), endpoint);
+            connection.close();
+
+            assertEquals("ok", reply.getSOAPBody().getFirstChild().getTextContent());
+            assertEquals(0, pool.getLeasedCount(new URL(endpoint)));
+        }
+        assertEquals("\"\"", soapAction);
+    }
+
+    @Test
+    public void testCallRecordsBytes() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        PooledSOAPConnection connection = new PooledSOAPConnection(new HttpConnectionPool(), messageFactory, 5000);
+        ByteCountRecorder recorder = new ByteCountRecorder();
+        connection.setMetricsRecorder(recorder);
+        connection.call(messageFactory.createMessage(), endpoint);
+
+        assertEquals(RESPONSE.getBytes("UTF-8").length, recorder.bytesIn.get());
+        assertTrue(recorder.bytesOut.get() > 0);
+    }
+
+    @Test
+    public void testBadStatus() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool();
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        PooledSOAPConnection connection = new PooledSOAPConnection(pool, messageFactory, 5000);
+        try {
+            connection.call(messageFactory.createMessage(), endpoint.replace("/soap", "/missing"));
+            fail("404 response should be rejected.");
+        } catch(SOAPException e) {
+            assertEquals(0, pool.getLeasedCount(new URL(endpoint)));
+        }
+    }
+}
+
+class ByteCountRecorder implements RequestMetricsRecorder {
+
+    final AtomicLong bytesIn = new AtomicLong();
+
+    final AtomicLong bytesOut = new AtomicLong();
+
+    volatile int status;
+
+    @Override
+    public void recordRequest(URL url, String action, int status, long latency) {
+        this.status = status;
+    }
+
+    @Override
+    public void recordBytesOut(URL url, String action, long bytes) {
+        bytesOut.addAndGet(bytes);
+    }
+
+    @Override
+    public void recordBytesIn(URL url, String action, long bytes) {
+        bytesIn.addAndGet(bytes);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.http.soap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.sdno.util.http.HttpConnectionPool;
+import org.openo.sdno.util.metrics.RequestMetrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * SOAPStreamResponse test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-14
+ */
+public class SOAPStreamResponseTest {
+
+    private static final String ENVELOPE_START =
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body>";
+
+    private static final String ENVELOPE_END = "</soapenv:Body></soapenv:Envelope>";
+
+    private HttpServer server;
+
+    private String endpoint;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/items", new ResponseHandler(200, ENVELOPE_START
+                + "<getResult><item><name>a</name><extra><item>x</item></extra></item><count>2</count>"
+                + "<item><name>b</name></item></getResult>" + ENVELOPE_END));
+        server.createContext("/fault", new ResponseHandler(500, ENVELOPE_START
+                + "<soapenv:Fault><faultcode>soapenv:Server</faultcode><faultstring>device busy</faultstring>"
+                + "</soapenv:Fault>" + ENVELOPE_END));
+        server.start();
+        endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(1, 60000L);
+        final List<String> names = new ArrayList<String>();
+
+        for(int i = 0; i < 2; i++) {
+            try (SOAPStreamResponse response = send(pool, endpoint + "/items")) {
+                response.parse("item", new SOAPElementHandler() {
+
+                    @Override
+                    public void onElement(XMLStreamReader reader) throws XMLStreamException {
+                        reader.nextTag();
+                        names.add(reader.getElementText());
+                    }
+                });
+            }
+            assertEquals(0, pool.getLeasedCount(new URL(endpoint)));
+        }
+        assertEquals("[a, b, a, b]", names.toString());
+    }
+
+    @Test
+    public void testBodyReader() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool();
+        try (SOAPStreamResponse response = send(pool, endpoint + "/items")) {
+            assertEquals("getResult", response.getBodyReader().getLocalName());
+        }
+        assertEquals(0, pool.getLeasedCount(new URL(endpoint)));
+    }
+
+    @Test
+    public void testFault() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool();
+        try (SOAPStreamResponse response = send(pool, endpoint + "/fault")) {
+            response.getBodyReader();
+            fail("SOAP fault should be reported.");
+        } catch(SOAPException e) {
+            assertEquals("SOAP fault: device busy", e.getMessage());
+        }
+        assertEquals(0, pool.getLeasedCount(new URL(endpoint)));
+    }
+
+    @Test
+    public void testStreamRecordsBytes() throws Exception {
+        SOAPMessageUtil util = SOAPMessageUtil.getInstance();
+        ByteCountRecorder recorder = new ByteCountRecorder();
+        util.setMetricsRecorder(recorder);
+        try {
+            try (SOAPStreamResponse response = util.sendMessageForStream(
+                    MessageFactory.newInstance().createMessage(), endpoint + "/items", 5000)) {
+                assertEquals("getResult", response.getBodyReader().getLocalName());
+            }
+        } finally {
+            util.setMetricsRecorder(RequestMetrics.getInstance());
+        }
+        assertTrue(recorder.bytesIn.get() > 0);
+        assertTrue(recorder.bytesOut.get() > 0);
+    }
+
+    @Test
+    public void testFaultIsRecordedAsError() throws Exception {
+        SOAPMessageUtil util = SOAPMessageUtil.getInstance();
+        ByteCountRecorder recorder = new ByteCountRecorder();
+        util.setMetricsRecorder(recorder);
+        util.setConnectionPool(new HttpConnectionPool());
+        try {
+            SOAPMessage reply = util.sendMessage(MessageFactory.newInstance().createMessage(), endpoint + "/fault",
+                    5000);
+            assertTrue(reply.getSOAPBody().hasFault());
+            assertEquals(HttpURLConnection.HTTP_INTERNAL_ERROR, recorder.status);
+
+            util.sendMessage(MessageFactory.newInstance().createMessage(), endpoint + "/items", 5000);
+            assertEquals(HttpURLConnection.HTTP_OK, recorder.status);
+        } finally {
+            util.setConnectionPool(null);
+            util.setMetricsRecorder(RequestMetrics.getInstance());
+        }
+    }
+
+    private SOAPStreamResponse send(HttpConnectionPool pool, String url) throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        PooledSOAPConnection connection = new PooledSOAPConnection(pool, messageFactory, 5000);
+        HttpURLConnection conn = connection.send(messageFactory.createMessage(), url);
+        return new SOAPStreamResponse(pool, conn, PooledSOAPConnection.getResponseStream(conn));
+    }
+
+    private static class ResponseHandler implements HttpHandler {
+
+        private final int status;
+
+        private final String response;
+
+        ResponseHandler(int status, String response) {
+            this.status = status;
+            this.response = response;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            IOUtils.toByteArray(exchange.getRequestBody());
+            byte[] body = response.getBytes("UTF-8");
+            exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+}
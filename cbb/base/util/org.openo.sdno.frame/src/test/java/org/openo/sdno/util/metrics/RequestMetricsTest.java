@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URL;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * RequestMetrics test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-7
+ */
+public class RequestMetricsTest {
+
+    @Test
+    public void testSnapshot() throws Exception {
+        RequestMetrics metrics = new RequestMetrics();
+        URL url = new URL("https://10.0.0.1/rest/devices");
+
+        metrics.recordRequest(url, "GET", 200, 10);
+        metrics.recordRequest(new URL("https://10.0.0.1:443/rest/ports"), "GET", 500, 30);
+        metrics.recordRequest(url, "GET", 0, 20);
+        metrics.recordBytesOut(url, "GET", 0);
+        metrics.recordBytesIn(url, "GET", 2048);
+        metrics.recordRequest(url, "POST", 201, 40);
+        metrics.recordBytesOut(url, "POST", 512);
+
+        List<RequestStatsSnapshot> snapshots = metrics.getSnapshot();
+        assertEquals(2, snapshots.size());
+        for(RequestStatsSnapshot snapshot : snapshots) {
+            assertEquals("10.0.0.1:443", snapshot.getHost());
+            if("GET".equals(snapshot.getAction())) {
+                assertEquals(3, snapshot.getRequestCount());
+                assertEquals(2, snapshot.getErrorCount());
+                assertEquals(2048, snapshot.getBytesIn());
+                assertEquals(20, snapshot.getP50Latency());
+                assertEquals(30, snapshot.getMaxLatency());
+            } else {
+                assertEquals(1, snapshot.getRequestCount());
+                assertEquals(0, snapshot.getErrorCount());
+                assertEquals(512, snapshot.getBytesOut());
+            }
+        }
+
+        metrics.reset();
+        assertEquals(0, metrics.getSnapshot().size());
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * AccessorFactory test class.<br>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-24
+ */
+public class AccessorFactoryTest {
+
+    @Test
+    public void testGetFieldAccessorOfParentField() {
+        FieldAccessor accessor = AccessorFactory.getFieldAccessor(TestReflection.class, "field1");
+        assertSame(accessor, AccessorFactory.getFieldAccessor(TestReflection.class, "field1"));
+        assertEquals("field1", accessor.getName());
+        assertEquals(String.class, accessor.getType());
+
+        TestReflection obj = new TestReflection("field1", "field2", "field3");
+        accessor.set(obj, "value");
+        assertEquals("value", accessor.get(obj));
+    }
+
+    @Test
+    public void testGetFieldAccessorNotFound() {
+        assertNull(AccessorFactory.getFieldAccessor(TestReflection.class, "field5"));
+        assertNull(AccessorFactory.getFieldAccessor(TestReflection.class, "field5"));
+    }
+
+    @Test
+    public void testGetGetter() throws Exception {
+        assertEquals(TestReflection.class.getMethod("getField3"),
+                AccessorFactory.getGetter(TestReflection.class, "field3"));
+        assertNull(AccessorFactory.getGetter(TestReflection.class, "field5"));
+    }
+}
@@ -17,6 +17,8 @@
 package org.openo.sdno.util.reflect;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Field;
@@ -53,6 +55,18 @@ public class ClassFieldManagerTest {
         assertEquals(testList1, testList2);
     }
 
+    @Test
+    public void testGetFiledNotFound() {
+        assertNull(ClassFieldManager.getInstance().getFiled(TestObject.class, "field5"));
+        assertNull(ClassFieldManager.getInstance().getFiled(TestObject.class, "field5"));
+    }
+
+    @Test
+    public void testAllFiledCached() {
+        assertSame(ClassFieldManager.getInstance().getAllField(TestObject.class),
+                ClassFieldManager.getInstance().getAllField(TestObject.class));
+    }
+
     @Test
     public void testFieldKeyEqual() {
         FieldKey key = new FieldKey(TestObject.class.getName(), FIELD_NAME1);
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.openo.sdno.check.CheckAttr;
+
+/**
+ * ClassModel test class.<br>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-26
+ */
+public class ClassModelTest {
+
+    @Test
+    public void testOfIsCached() {
+        assertSame(ClassModel.of(ModelChild.class), ClassModel.of(ModelChild.class));
+    }
+
+    @Test
+    public void testFieldsInHierarchyOrder() throws NoSuchFieldException {
+        ClassModel model = ClassModel.of(ModelChild.class);
+        List<Field> expected = Arrays.asList(ModelChild.class.getDeclaredField("name"),
+                ModelChild.class.getDeclaredField("names"), ModelChild.class.getDeclaredField("nestedNames"),
+                ModelChild.class.getDeclaredField("wildcardNames"), ModelParent.class.getDeclaredField("name"),
+                ModelParent.class.getDeclaredField("color"));
+        assertEquals(expected, model.getFieldList());
+        assertEquals(ModelChild.class, model.getField("name").getField().getDeclaringClass());
+        assertEquals(ModelParent.class, model.getField("color").getField().getDeclaringClass());
+        assertNull(model.getField("unknown"));
+    }
+
+    @Test
+    public void testLookupsShareTheModel() {
+        FieldModel name = ClassModel.of(ModelChild.class).getField("name");
+        assertSame(name.getField(), ClassFieldManager.getInstance().getFiled(ModelChild.class, "name"));
+        assertSame(name.getAccessor(), AccessorFactory.getFieldAccessor(ModelChild.class, "name"));
+        assertNull(ClassFieldManager.getInstance().getFiled(ModelChild.class, "unknown"));
+    }
+
+    @Test
+    public void testNestedGenericElementType() {
+        ClassModel model = ClassModel.of(ModelChild.class);
+        assertEquals(List.class, model.getField("nestedNames").getElementType());
+        assertEquals(CharSequence.class, model.getField("wildcardNames").getElementType());
+        assertEquals(Map.class, ClassModel.of(GenericModel.class).getField("maps").getElementType());
+        assertEquals(Object.class, ClassModel.of(GenericModel.class).getField("items").getElementType());
+    }
+
+    @Test
+    public void testFieldModel() {
+        ClassModel model = ClassModel.of(ModelChild.class);
+        FieldModel names = model.getField("names");
+        assertTrue(names.isContainer());
+        assertEquals(String.class, names.getElementType());
+        assertTrue(model.getField("color").isEnum());
+        assertFalse(model.getField("name").isEnum());
+
+        List<FieldModel> checkedFields = model.getCheckedFields();
+        assertEquals(1, checkedFields.size());
+        assertEquals("name", checkedFields.get(0).getName());
+        assertTrue(checkedFields.get(0).getCheckAttr().required());
+    }
+}
+
+class ModelParent {
+
+    String name;
+
+    TestEnum color;
+}
+
+class ModelChild extends ModelParent {
+
+    @CheckAttr(required = true)
+    String name;
+
+    List<String> names;
+
+    List<List<String>> nestedNames;
+
+    List<? extends CharSequence> wildcardNames;
+}
+
+class GenericModel<T> {
+
+    List<Map<String, T>> maps;
+
+    List<T> items;
+}
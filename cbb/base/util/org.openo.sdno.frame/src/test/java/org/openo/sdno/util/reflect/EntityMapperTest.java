@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.util.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.openo.sdno.exception.InnerErrorServiceException;
+
+/**
+ * EntityMapper test class.<br>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-25
+ */
+public class EntityMapperTest {
+
+    @Test
+    public void testForClassIsCached() {
+        assertSame(EntityMapper.forClass(MappedEntity.class), EntityMapper.forClass(MappedEntity.class));
+        assertEquals(MappedEntity.class, EntityMapper.forClass(MappedEntity.class).getType());
+    }
+
+    @Test
+    public void testMapConvertsValues() throws InnerErrorServiceException {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("name", "entity");
+        values.put("count", "12");
+        values.put("size", 5);
+        values.put("ratio", "0.5");
+        values.put("color", "BBB");
+        values.put("unknown", "ignored");
+
+        MappedEntity entity = EntityMapper.forClass(MappedEntity.class).map(values);
+        assertEquals("entity", entity.name);
+        assertEquals(Long.valueOf(12), entity.count);
+        assertEquals(Integer.valueOf(5), entity.size);
+        assertEquals(Float.valueOf(0.5f), entity.ratio);
+        assertEquals(TestEnum.BBB, entity.color);
+        assertEquals("parent", entity.parentName);
+    }
+
+    @Test
+    public void testMapAll() throws InnerErrorServiceException {
+        List<Map<String, Object>> valuesList = new ArrayList<Map<String, Object>>();
+        for(int i = 0; i < 3; i++) {
+            Map<String, Object> values = new HashMap<String, Object>();
+            values.put("count", i);
+            values.put("parentName", null);
+            valuesList.add(values);
+        }
+
+        List<MappedEntity> entities = EntityMapper.forClass(MappedEntity.class).mapAll(valuesList);
+        assertEquals(3, entities.size());
+        assertEquals(Long.valueOf(2), entities.get(2).count);
+        assertNull(entities.get(0).parentName);
+    }
+}
+
+class MappedParent {
+
+    String parentName = "parent";
+}
+
+class MappedEntity extends MappedParent {
+
+    String name;
+
+    Long count;
+
+    Integer size;
+
+    Float ratio;
+
+    TestEnum color;
+}
@@ -16,6 +16,7 @@
 package org.openo.sdno.healthcheck.rest;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.GET;
@@ -23,6 +24,8 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 
 import org.openo.sdno.healthcheck.service.HealthChecker;
+import org.openo.sdno.util.metrics.RequestMetrics;
+import org.openo.sdno.util.metrics.RequestStatsSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -61,4 +64,18 @@ public class HealthCheckRoaResource {
         
         return statusMap;
     }
+
+    /**
+     * 
+     * Get the metrics of the southbound requests per device host and action.<br/>
+     * 
+     * @return request counts, errors, bytes and latency percentiles
+     * @since  SDNO 0.5
+     */
+    @GET
+    @Path("/metrics")
+    @Produces({"application/json"})
+    public List<RequestStatsSnapshot> getMetrics() {
+        return RequestMetrics.getInstance().getSnapshot();
+    }
 }
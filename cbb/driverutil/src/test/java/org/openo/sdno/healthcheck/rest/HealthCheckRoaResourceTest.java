@@ -16,8 +16,10 @@
 package org.openo.sdno.healthcheck.rest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Field;
+import java.net.URL;
 import java.util.Map;
 
 import org.junit.Test;
@@ -26,6 +28,8 @@ import org.openo.baseservice.roa.util.restclient.RestfulParametes;
 import org.openo.baseservice.roa.util.restclient.RestfulResponse;
 import org.openo.sdno.framework.container.resthelper.RestfulProxy;
 import org.openo.sdno.healthcheck.service.DefaultHealthChecker;
+import org.openo.sdno.util.metrics.RequestMetrics;
+import org.openo.sdno.util.metrics.RequestStatsSnapshot;
 
 import mockit.Mock;
 import mockit.MockUp;
@@ -74,4 +78,15 @@ public class HealthCheckRoaResourceTest {
 		
 	}
 
+	@Test
+	public void testGetMetrics() throws Exception {
+		RequestMetrics.getInstance().recordRequest(new URL("https://10.0.0.9:8443/rest"), "GET", 200, 15);
+
+		boolean found = false;
+		for (RequestStatsSnapshot snapshot : new HealthCheckRoaResource().getMetrics()) {
+			found |= "10.0.0.9:8443".equals(snapshot.getHost());
+		}
+		assertTrue(found);
+	}
+
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.base.threadpool;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor which limits the number of tasks running at the same time for each key.<br>
+ * <p>
+ * Tasks beyond the limit of their key wait in a queue of the key without holding any thread, and
+ * are handed to the underlying executor one by one when a running task of the same key finishes.
+ * The queue of each key can be bounded, a task submitted to a full queue is rejected.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-22
+ */
+public class KeyedTaskExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyedTaskExecutor.class);
+
+    private final Executor executor;
+
+    private final int maxRunningPerKey;
+
+    private final int maxQueuedPerKey;
+
+    private final Map<String, KeyState> keyStates = new HashMap<String, KeyState>();
+
+    private final ThreadLocal<Deque<KeyedFutureTask<?>>> dispatching = new ThreadLocal<Deque<KeyedFutureTask<?>>>();
+
+    /**
+     * Constructor with unbounded queues.<br>
+     *
+     * @since SDNO 0.5
+     * @param executor Executor running the tasks
+     * @param maxRunningPerKey Maximum number of running tasks per key
+     */
+    public KeyedTaskExecutor(Executor executor, int maxRunningPerKey) {
+        this(executor, maxRunningPerKey, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor.<br>
+     *
+     * @since SDNO 0.5
+     * @param executor Executor running the tasks
+     * @param maxRunningPerKey Maximum number of running tasks per key
+     * @param maxQueuedPerKey Maximum number of waiting tasks per key
+     */
+    public KeyedTaskExecutor(Executor executor, int maxRunningPerKey, int maxQueuedPerKey) {
+        if(maxRunningPerKey <= 0 || maxQueuedPerKey < 0) {
+            throw new IllegalArgumentException("Invalid limits, running: " + maxRunningPerKey + ", queued: "
+                    + maxQueuedPerKey);
+        }
+        this.executor = executor;
+        this.maxRunningPerKey = maxRunningPerKey;
+        this.maxQueuedPerKey = maxQueuedPerKey;
+    }
+
+    /**
+     * Submit a task of the key.<br>
+     *
+     * @param key Key of the task, such as the host the task talks to
+     * @param task Task to run
+     * @return Future of the task result
+     * @throws RejectedExecutionException if the queue of the key is full
+     * @since SDNO 0.5
+     */
+    public <T> Future<T> submit(String key, Callable<T> task) {
+        KeyedFutureTask<T> futureTask = new KeyedFutureTask<T>(key, task);
+        boolean runNow;
+        synchronized(keyStates) {
+            KeyState state = keyStates.get(key);
+            if(state == null) {
+                state = new KeyState();
+                keyStates.put(key, state);
+            }
+
+            runNow = state.running < maxRunningPerKey;
+            if(runNow) {
+                state.running++;
+            } else if(state.waiting.size() < maxQueuedPerKey) {
+                state.waiting.add(futureTask);
+            } else {
+                throw new RejectedExecutionException("Too many waiting tasks for " + key);
+            }
+        }
+
+        if(runNow) {
+            dispatch(futureTask);
+        }
+        return futureTask;
+    }
+
+    /**
+     * Get the number of running tasks of the key.<br>
+     *
+     * @param key Task key
+     * @return Number of running tasks
+     * @since SDNO 0.5
+     */
+    public int getRunningCount(String key) {
+        synchronized(keyStates) {
+            KeyState state = keyStates.get(key);
+            return (state == null) ? 0 : state.running;
+        }
+    }
+
+    /**
+     * Get the number of waiting tasks of the key.<br>
+     *
+     * @param key Task key
+     * @return Number of waiting tasks
+     * @since SDNO 0.5
+     */
+    public int getWaitingCount(String key) {
+        synchronized(keyStates) {
+            KeyState state = keyStates.get(key);
+            return (state == null) ? 0 : state.waiting.size();
+        }
+    }
+
+    /**
+     * Called when the underlying executor rejects a task, which then never runs and whose future
+     * fails with the rejection. Does nothing by default, subclasses can release what the task
+     * holds or notify whoever waits for it. It may be called in the submitting thread or in the
+     * thread of a finished task of the same key.<br>
+     *
+     * @param key Key of the task
+     * @param task Rejected task
+     * @param cause Rejection of the executor
+     * @since SDNO 0.5
+     */
+    protected void onRejected(String key, Callable<?> task, RejectedExecutionException cause) {
+        // Nothing to release by default.
+    }
+
+    /**
+     * Hand the task to the executor. Tasks scheduled while it runs on this thread, such as the
+     * next task of a key whose task the executor ran in the calling thread, or the next task of a
+     * key whose task was rejected, are handed over by the loop instead of by nested calls.
+     */
+    private void dispatch(KeyedFutureTask<?> task) {
+        Deque<KeyedFutureTask<?>> outer = dispatching.get();
+        Deque<KeyedFutureTask<?>> pending = new ArrayDeque<KeyedFutureTask<?>>();
+        dispatching.set(pending);
+        try {
+            KeyedFutureTask<?> next = task;
+            while(next != null) {
+                try {
+                    executor.execute(next);
+                } catch(RejectedExecutionException e) {
+                    LOGGER.error("Executor rejected task of " + next.key, e);
+                    next.setFailure(e);
+                    notifyRejected(next, e);
+                    KeyedFutureTask<?> following = pollNext(next.key);
+                    if(following != null) {
+                        pending.add(following);
+                    }
+                }
+                next = pending.poll();
+            }
+        } finally {
+            if(outer == null) {
+                dispatching.remove();
+            } else {
+                dispatching.set(outer);
+            }
+        }
+    }
+
+    private void notifyRejected(KeyedFutureTask<?> task, RejectedExecutionException cause) {
+        try {
+            onRejected(task.key, task.callable, cause);
+        } catch(RuntimeException e) {
+            LOGGER.error("Rejection handler of " + task.key + " failed", e);
+        }
+    }
+
+    private void scheduleNext(String key) {
+        KeyedFutureTask<?> next = pollNext(key);
+        if(next == null) {
+            return;
+        }
+
+        Deque<KeyedFutureTask<?>> pending = dispatching.get();
+        if(pending != null) {
+            pending.add(next);
+        } else {
+            dispatch(next);
+        }
+    }
+
+    private KeyedFutureTask<?> pollNext(String key) {
+        synchronized(keyStates) {
+            KeyState state = keyStates.get(key);
+            KeyedFutureTask<?> next = state.waiting.poll();
+            if(next == null) {
+                state.running--;
+                if(state.running == 0) {
+                    keyStates.remove(key);
+                }
+            }
+            return next;
+        }
+    }
+
+    private static class KeyState {
+
+        int running;
+
+        final Queue<KeyedFutureTask<?>> waiting = new ArrayDeque<KeyedFutureTask<?>>();
+    }
+
+    private class KeyedFutureTask<T> extends FutureTask<T> {
+
+        final String key;
+
+        final Callable<T> callable;
+
+        KeyedFutureTask(String key, Callable<T> callable) {
+            super(callable);
+            this.key = key;
+            this.callable = callable;
+        }
+
+        void setFailure(Throwable t) {
+            setException(t);
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                scheduleNext(key);
+            }
+        }
+    }
+}
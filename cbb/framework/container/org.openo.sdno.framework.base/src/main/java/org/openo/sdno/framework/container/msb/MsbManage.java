@@ -28,7 +28,6 @@ import java.util.Map;
 import java.util.concurrent.Executors;
 
 import org.apache.commons.lang.StringUtils;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.baseservice.roa.util.restclient.RestfulParametes;
 import org.openo.baseservice.roa.util.restclient.RestfulResponse;
@@ -104,21 +103,21 @@ public class MsbManage {
         }
 
         try {
-            ObjectMapper mapper = new ObjectMapper();
             byte[] bytes = Files.readAllBytes(Paths.get(MSB_REGISTION_FILE));
-            msbRegistionBodyMap = mapper.readValue(bytes, Map.class);
-        } catch(IOException e) {
+            msbRegistionBodyMap = JsonUtil.fromJson(bytes, Map.class);
+        } catch(IOException | IllegalArgumentException e) {
             LOGGER.error("Failed to get microservice bus registration body, " + e);
             return;
         }
 
         replaceLocalIp();
 
+        String registionBody = JsonUtil.toJson(msbRegistionBodyMap);
         RestfulParametes restParametes = new RestfulParametes();
         restParametes.putHttpContextHeader("Content-Type", "application/json;charset=UTF-8");
-        restParametes.setRawData(JsonUtil.toJson(msbRegistionBodyMap));
+        restParametes.setRawData(registionBody);
 
-        LOGGER.info("Registering body: " + JsonUtil.toJson(msbRegistionBodyMap));
+        LOGGER.info("Registering body: " + registionBody);
 
         RegisterThread registerThread = new RegisterThread(restParametes);
         Executors.newSingleThreadExecutor().submit(registerThread);
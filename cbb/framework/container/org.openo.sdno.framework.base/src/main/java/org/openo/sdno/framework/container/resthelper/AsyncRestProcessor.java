@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * Asynchronous processor which runs the requests of a synchronous processor in an executor.<br/>
+ * <p>
+ * Every failure is reported as a ServiceException, to the callback and by the Future: exceptions
+ * of the processor, runtime exceptions wrapped, and the rejection of the request by the executor,
+ * in which case the returned Future has already failed.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-19
+ */
+public class AsyncRestProcessor implements IAsyncProcessor {
+
+    private final IProcessor processor;
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.<br/>
+     * 
+     * @param processor synchronous processor doing the requests.
+     * @param executor executor running the requests.
+     * @since SDNO 0.5
+     */
+    public AsyncRestProcessor(IProcessor processor, ExecutorService executor) {
+        this.processor = processor;
+        this.executor = executor;
+    }
+
+    /**
+     * @return Returns the executor.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public Future<RestfulResponse> doActionAsync(final RestfulMethod action, final String uri,
+            final RestfulParametes restParametes, final RestfulOptions restOptions,
+            final RestfulResponseCallback callback) {
+        try {
+            return executor.submit(new Callable<RestfulResponse>() {
+
+                @Override
+                public RestfulResponse call() throws ServiceException {
+                    RestfulResponse response;
+                    try {
+                        response = (restOptions == null) ? processor.doAction(action, uri, restParametes)
+                                : processor.doAction(action, uri, restParametes, restOptions);
+                    } catch(ServiceException e) {
+                        throw notifyFailure(callback, e);
+                    } catch(RuntimeException e) {
+                        throw notifyFailure(callback, new ServiceException("Request failed: " + uri, e));
+                    }
+
+                    if(callback != null) {
+                        callback.onComplete(response);
+                    }
+                    return response;
+                }
+            });
+        } catch(RejectedExecutionException e) {
+            final ServiceException failure =
+                    notifyFailure(callback, new ServiceException("Request rejected by the executor: " + uri, e));
+            FutureTask<RestfulResponse> failed = new FutureTask<RestfulResponse>(new Callable<RestfulResponse>() {
+
+                @Override
+                public RestfulResponse call() throws ServiceException {
+                    throw failure;
+                }
+            });
+            failed.run();
+            return failed;
+        }
+    }
+
+    private static ServiceException notifyFailure(RestfulResponseCallback callback, ServiceException e) {
+        if(callback != null) {
+            callback.onFailure(e);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * Processor which caches the responses of GET calls.<br/>
+ * <p>
+ * Caching is opt-in: a GET response is cached only when a time to live is configured for its uri
+ * with {@link #setTtl(String, long)}, or set for the call by the {@link #OPTION_CACHE_TTL} option
+ * of its RestfulOptions. Only 2xx responses are cached. Responses are cached per uri, query
+ * parameters, request headers and target host, so calls with different credentials never share a
+ * response. When an entry with an ETag expires, the next call revalidates it with If-None-Match, a
+ * 304 response renews the entry. Concurrent misses of the same entry share one upstream call. The
+ * number of entries is bounded, the least recently used entry is evicted first. Other calls on a
+ * uri invalidate the cached responses of the uri. Each caller gets its own copy of a cached
+ * response, and the parameters of the caller are never modified.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-21
+ */
+public class CachingProcessor implements IProcessor {
+
+    /**
+     * RestfulOptions option setting the time to live (ms) of the response of a GET call, 0 to
+     * bypass the cache.
+     */
+    public static final String OPTION_CACHE_TTL = "cacheTtl";
+
+    /**
+     * Default maximum number of cached responses.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private static final String HEADER_ETAG = "ETag";
+
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    private static final int SC_NOT_MODIFIED = 304;
+
+    private final IProcessor delegate;
+
+    private final Map<String, CacheEntry> entries;
+
+    private final ConcurrentMap<String, Long> uriTtls = new ConcurrentHashMap<String, Long>();
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * Constructor with default size.<br/>
+     * 
+     * @param delegate processor sending the calls.
+     * @since SDNO 0.5
+     */
+    public CachingProcessor(IProcessor delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructor.<br/>
+     * 
+     * @param delegate processor sending the calls.
+     * @param maxEntries maximum number of cached responses.
+     * @since SDNO 0.5
+     */
+    public CachingProcessor(IProcessor delegate, final int maxEntries) {
+        if(maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.delegate = delegate;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Set the time to live of the GET responses of the uris starting with the prefix. The longest
+     * matching prefix applies.<br/>
+     * 
+     * @param uriPrefix uri prefix.
+     * @param ttl time to live (ms), 0 or less to stop caching the uris.
+     * @since SDNO 0.5
+     */
+    public void setTtl(String uriPrefix, long ttl) {
+        if(ttl > 0) {
+            uriTtls.put(uriPrefix, ttl);
+        } else {
+            uriTtls.remove(uriPrefix);
+        }
+    }
+
+    /**
+     * Remove the cached responses of the uri and of the uris below it.<br/>
+     * 
+     * @param uri uri of the request.
+     * @since SDNO 0.5
+     */
+    public void invalidate(String uri) {
+        synchronized(entries) {
+            Iterator<Entry<String, CacheEntry>> iter = entries.entrySet().iterator();
+            while(iter.hasNext()) {
+                if(iter.next().getKey().startsWith(uri)) {
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all the cached responses.<br/>
+     * 
+     * @since SDNO 0.5
+     */
+    public void clear() {
+        synchronized(entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached responses.<br/>
+     * 
+     * @return number of cached responses.
+     * @since SDNO 0.5
+     */
+    public int size() {
+        synchronized(entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+            throws ServiceException {
+        return doCachedAction(action, uri, restParametes, null, getUriTtl(uri));
+    }
+
+    @Override
+    public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions) throws ServiceException {
+        return doCachedAction(action, uri, restParametes, restOptions, getTtl(uri, restOptions));
+    }
+
+    private RestfulResponse doCachedAction(RestfulMethod action, String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions, long ttl) throws ServiceException {
+        if(action != RestfulMethod.GET) {
+            try {
+                return send(action, uri, restParametes, restOptions);
+            } finally {
+                invalidate(uri);
+            }
+        }
+        if(ttl <= 0) {
+            return send(action, uri, restParametes, restOptions);
+        }
+
+        final String key = getCacheKey(uri, restParametes, restOptions);
+        CacheEntry entry = getEntry(key);
+        if((entry != null) && !entry.isExpired()) {
+            return RestfulCopier.copyResponse(entry.response);
+        }
+        // The response is shared by the callers merged into the call and by the cache.
+        RestfulResponse response =
+                singleFlight.execute(key, new RevalidateCall(key, uri, restParametes, restOptions, ttl));
+        return RestfulCopier.copyResponse(response);
+    }
+
+    private RestfulResponse revalidate(String key, String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions, long ttl) throws ServiceException {
+        // Another caller may have renewed the entry just before this call started.
+        CacheEntry entry = getEntry(key);
+        if((entry != null) && !entry.isExpired()) {
+            return entry.response;
+        }
+
+        boolean conditional = (entry != null) && (entry.etag != null)
+                && (restParametes.getHttpContextHeader(HEADER_IF_NONE_MATCH) == null);
+        RestfulParametes sentParametes = restParametes;
+        if(conditional) {
+            sentParametes = RestfulCopier.copyParametes(restParametes);
+            sentParametes.putHttpContextHeader(HEADER_IF_NONE_MATCH, entry.etag);
+        }
+
+        RestfulResponse response = send(RestfulMethod.GET, uri, sentParametes, restOptions);
+
+        if(conditional && (response.getStatus() == SC_NOT_MODIFIED)) {
+            putEntry(key, new CacheEntry(entry.response, entry.etag, ttl));
+            return entry.response;
+        }
+        if(response.getStatus() / 100 == 2) {
+            putEntry(key, new CacheEntry(response, getEtag(response), ttl));
+        }
+        return response;
+    }
+
+    private RestfulResponse send(RestfulMethod action, String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions) throws ServiceException {
+        return (restOptions == null) ? delegate.doAction(action, uri, restParametes)
+                : delegate.doAction(action, uri, restParametes, restOptions);
+    }
+
+    private CacheEntry getEntry(String key) {
+        synchronized(entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void putEntry(String key, CacheEntry entry) {
+        synchronized(entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private long getTtl(String uri, RestfulOptions restOptions) {
+        Object ttl = restOptions.getOption(OPTION_CACHE_TTL);
+        if(ttl instanceof Number) {
+            return ((Number)ttl).longValue();
+        }
+        if(ttl instanceof String) {
+            try {
+                return Long.parseLong((String)ttl);
+            } catch(NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + OPTION_CACHE_TTL + ": " + ttl, e);
+            }
+        }
+        return getUriTtl(uri);
+    }
+
+    private long getUriTtl(String uri) {
+        String matched = null;
+        for(String prefix : uriTtls.keySet()) {
+            if(uri.startsWith(prefix) && ((matched == null) || (prefix.length() > matched.length()))) {
+                matched = prefix;
+            }
+        }
+        if(matched == null) {
+            return 0;
+        }
+        Long ttl = uriTtls.get(matched);
+        return (ttl == null) ? 0 : ttl;
+    }
+
+    private static String getEtag(RestfulResponse response) {
+        Map<String, String> headers = response.getRespHeaderMap();
+        if(headers == null) {
+            return null;
+        }
+        for(Entry<String, String> header : headers.entrySet()) {
+            if(HEADER_ETAG.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String getCacheKey(String uri, RestfulParametes restParametes, RestfulOptions restOptions) {
+        StringBuilder key = new StringBuilder(uri);
+        Map<String, String> params = restParametes.getParamMap();
+        if((params != null) && !params.isEmpty()) {
+            key.append('?').append(new TreeMap<String, String>(params));
+        }
+        // Headers such as the auth token select what the server returns.
+        Map<String, String> headers = restParametes.getHeaderMap();
+        if((headers != null) && !headers.isEmpty()) {
+            key.append('#').append(new TreeMap<String, String>(headers));
+        }
+        if(restOptions != null) {
+            String host = restOptions.getHost();
+            if((host != null) && !host.isEmpty()) {
+                key.append('@').append(host).append(':').append(restOptions.getPort());
+            }
+        }
+        return key.toString();
+    }
+
+    private static class CacheEntry {
+
+        final RestfulResponse response;
+
+        final String etag;
+
+        final long expiresAt;
+
+        CacheEntry(RestfulResponse response, String etag, long ttl) {
+            this.response = response;
+            this.etag = etag;
+            this.expiresAt = System.currentTimeMillis() + ttl;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private class RevalidateCall implements Callable<RestfulResponse> {
+
+        private final String key;
+
+        private final String uri;
+
+        private final RestfulParametes restParametes;
+
+        private final RestfulOptions restOptions;
+
+        private final long ttl;
+
+        RevalidateCall(String key, String uri, RestfulParametes restParametes, RestfulOptions restOptions,
+                long ttl) {
+            this.key = key;
+            this.uri = uri;
+            this.restParametes = restParametes;
+            this.restOptions = restOptions;
+            this.ttl = ttl;
+        }
+
+        @Override
+        public RestfulResponse call() throws ServiceException {
+            return revalidate(key, uri, restParametes, restOptions, ttl);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import java.util.concurrent.Future;
+
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * Asynchronous processor interface.<br/>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-19
+ */
+public interface IAsyncProcessor {
+
+    /**
+     * process the rest http request without blocking the caller.<br/>
+     * 
+     * @param action method of request(GET,PUT,POST,DELETE)
+     * @param uri uri of the request.
+     * @param restParametes parameters of the restful request
+     * @param restOptions options of rest request, can be null.
+     * @param callback callback notified on completion, can be null.
+     * @return Future of the RestfulResponse, whose get() throws ExecutionException caused by the
+     *         ServiceException of a failed request.
+     * @since SDNO 0.5
+     */
+    Future<RestfulResponse> doActionAsync(RestfulMethod action, String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions, RestfulResponseCallback callback);
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+import org.openo.sdno.framework.container.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processor which sends the calls of a microservice directly to its instances.<br/>
+ * <p>
+ * The instances of a service are discovered from the microservice bus on the first call to the
+ * service, cached, and refreshed in the background. Each call is sent to one of the instances,
+ * chosen round robin or by the least number of outstanding calls, by setting the host and port on
+ * a copy of all the rest options of the call, so the extra hop through the bus is skipped. An
+ * instance whose call failed to connect, or answered with a server error (5xx) as an exception or
+ * a response, is skipped until the next refresh, client errors (4xx) do not count against the
+ * instance. Calls which do not address a microservice, calls whose options already set a host,
+ * and calls to services without known instances go through the delegate processor unchanged.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-20
+ */
+public class LoadBalancedProcessor implements IProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadBalancedProcessor.class);
+
+    /**
+     * Default interval (ms) between two refreshes of the instances.
+     */
+    public static final long DEFAULT_REFRESH_INTERVAL = 30 * 1000L;
+
+    private static final String MSB_SERVICE_URL = "/openoapi/microservices/v1/services/{0}/version/{1}";
+
+    private static final String MSB_SERVICE_NAME = "microservices";
+
+    private static final Pattern SERVICE_URI_PATTERN = Pattern.compile("^/(?:openoapi|api)/([^/?]+)/([^/?]+)");
+
+    /**
+     * Number of refresh intervals after which an unused service is dropped from the cache.
+     */
+    private static final int IDLE_REFRESH_COUNT = 10;
+
+    /**
+     * Policy choosing the instance of a call.<br/>
+     */
+    public enum Policy {
+        /**
+         * Instances take turns.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * The instance with the least outstanding calls is chosen.
+         */
+        LEAST_OUTSTANDING
+    }
+
+    private final IProcessor delegate;
+
+    private final Policy policy;
+
+    private final long refreshInterval;
+
+    private final ConcurrentMap<String, ServiceEntry> services = new ConcurrentHashMap<String, ServiceEntry>();
+
+    private final ScheduledExecutorService refresher;
+
+    /**
+     * Constructor with round robin policy and default refresh interval.<br/>
+     * 
+     * @param delegate processor sending the calls and the discovery requests.
+     * @since SDNO 0.5
+     */
+    public LoadBalancedProcessor(IProcessor delegate) {
+        this(delegate, Policy.ROUND_ROBIN, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Constructor.<br/>
+     * 
+     * @param delegate processor sending the calls and the discovery requests.
+     * @param policy policy choosing the instance of a call.
+     * @param refreshInterval interval (ms) between two refreshes of the instances.
+     * @since SDNO 0.5
+     */
+    public LoadBalancedProcessor(IProcessor delegate, Policy policy, long refreshInterval) {
+        if(refreshInterval <= 0) {
+            throw new IllegalArgumentException("refreshInterval must be positive");
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        this.refreshInterval = refreshInterval;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "LoadBalancedProcessor-refresher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.refresher.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                refreshAll();
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+            throws ServiceException {
+        ServiceInstance instance = chooseInstance(uri);
+        if(instance == null) {
+            return delegate.doAction(action, uri, restParametes);
+        }
+        return doAction(instance, action, uri, restParametes, new RestfulOptions());
+    }
+
+    @Override
+    public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions) throws ServiceException {
+        ServiceInstance instance = StringUtils.isEmpty(restOptions.getHost()) ? chooseInstance(uri) : null;
+        if(instance == null) {
+            return delegate.doAction(action, uri, restParametes, restOptions);
+        }
+        return doAction(instance, action, uri, restParametes, restOptions);
+    }
+
+    /**
+     * Get the cached instances of the service addressed by the uri.<br/>
+     * 
+     * @param uri uri of a call to the service.
+     * @return list of "host:port" of the instances, empty if none is known.
+     * @since SDNO 0.5
+     */
+    public List<String> getInstances(String uri) {
+        String key = getServiceKey(uri);
+        ServiceEntry entry = (key == null) ? null : services.get(key);
+        if(entry == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> result = new ArrayList<String>();
+        for(ServiceInstance instance : entry.instances) {
+            result.add(instance.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Stop the background refresh.<br/>
+     * 
+     * @since SDNO 0.5
+     */
+    public void shutdown() {
+        refresher.shutdown();
+    }
+
+    private RestfulResponse doAction(ServiceInstance instance, RestfulMethod action, String uri,
+            RestfulParametes restParametes, RestfulOptions restOptions) throws ServiceException {
+        // The options of the caller may be reused for later calls, they must not be pinned to this instance.
+        RestfulOptions instanceOptions = RestfulCopier.copyOptions(restOptions);
+        instanceOptions.setHost(instance.host);
+        instanceOptions.setPort(instance.port);
+        instance.outstanding.incrementAndGet();
+        try {
+            RestfulResponse response = delegate.doAction(action, uri, restParametes, instanceOptions);
+            // The rest client returns server errors as responses rather than exceptions.
+            if((response != null) && isServerError(response.getStatus())) {
+                markDown(instance, "status " + response.getStatus());
+            }
+            return response;
+        } catch(ServiceException e) {
+            if(!isClientError(e.getHttpCode())) {
+                markDown(instance, e.getMessage());
+            }
+            throw e;
+        } finally {
+            instance.outstanding.decrementAndGet();
+        }
+    }
+
+    private static void markDown(ServiceInstance instance, String reason) {
+        LOGGER.warn("Call to instance " + instance.getKey() + " failed (" + reason
+                + "), skip it until next refresh.");
+        instance.down = true;
+    }
+
+    private static boolean isClientError(int httpCode) {
+        return httpCode >= 400 && httpCode < 500;
+    }
+
+    private static boolean isServerError(int status) {
+        return status >= 500;
+    }
+
+    private ServiceInstance chooseInstance(String uri) {
+        String key = getServiceKey(uri);
+        if(key == null) {
+            return null;
+        }
+
+        ServiceEntry entry = services.get(key);
+        if(entry == null) {
+            ServiceEntry newEntry = new ServiceEntry();
+            entry = services.putIfAbsent(key, newEntry);
+            if(entry == null) {
+                entry = newEntry;
+                refresh(key, entry);
+            }
+        }
+        entry.lastUsed = System.currentTimeMillis();
+
+        List<ServiceInstance> instances = entry.instances;
+        int size = instances.size();
+        if(size == 0) {
+            return null;
+        }
+
+        int start = (entry.next.getAndIncrement() & Integer.MAX_VALUE) % size;
+        ServiceInstance chosen = null;
+        for(int i = 0; i < size; i++) {
+            ServiceInstance candidate = instances.get((start + i) % size);
+            if(candidate.down) {
+                continue;
+            }
+            if(policy == Policy.ROUND_ROBIN) {
+                return candidate;
+            }
+            if((chosen == null) || (candidate.outstanding.get() < chosen.outstanding.get())) {
+                chosen = candidate;
+            }
+        }
+
+        // All the instances failed, try them again rather than giving up.
+        return (chosen == null) ? instances.get(start) : chosen;
+    }
+
+    private void refreshAll() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry<String, ServiceEntry>> iter = services.entrySet().iterator();
+        while(iter.hasNext()) {
+            Entry<String, ServiceEntry> item = iter.next();
+            if(now - item.getValue().lastUsed > IDLE_REFRESH_COUNT * refreshInterval) {
+                iter.remove();
+            } else {
+                refresh(item.getKey(), item.getValue());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void refresh(String key, ServiceEntry entry) {
+        String[] nameAndVersion = key.split("/");
+        String url = MessageFormat.format(MSB_SERVICE_URL, nameAndVersion[0], nameAndVersion[1]);
+        try {
+            RestfulParametes restParametes = new RestfulParametes();
+            restParametes.putHttpContextHeader("Content-Type", "application/json;charset=UTF-8");
+            RestfulResponse response = delegate.doAction(RestfulMethod.GET, url, restParametes);
+            if(response.getStatus() / 100 != 2) {
+                LOGGER.warn("Discover instances of " + key + " failed, status: " + response.getStatus());
+                return;
+            }
+
+            Map<String, Object> serviceInfo = JsonUtil.fromJson(response.getResponseContent(), Map.class);
+            List<Map<String, Object>> nodes = (List<Map<String, Object>>)serviceInfo.get("nodes");
+            entry.instances = mergeInstances(entry.instances, nodes);
+        } catch(ServiceException | RuntimeException e) {
+            LOGGER.warn("Discover instances of " + key + " failed, " + e);
+        }
+    }
+
+    private static List<ServiceInstance> mergeInstances(List<ServiceInstance> current,
+            List<Map<String, Object>> nodes) {
+        Map<String, ServiceInstance> known = new HashMap<String, ServiceInstance>();
+        for(ServiceInstance instance : current) {
+            known.put(instance.getKey(), instance);
+        }
+
+        List<ServiceInstance> instances = new ArrayList<ServiceInstance>();
+        if(nodes != null) {
+            for(Map<String, Object> node : nodes) {
+                ServiceInstance instance = new ServiceInstance(String.valueOf(node.get("ip")),
+                        Integer.parseInt(String.valueOf(node.get("port"))));
+                ServiceInstance old = known.get(instance.getKey());
+                if(old != null) {
+                    // Keep the outstanding count of the calls in flight.
+                    old.down = false;
+                    instance = old;
+                }
+                instances.add(instance);
+            }
+        }
+        return Collections.unmodifiableList(instances);
+    }
+
+    private static String getServiceKey(String uri) {
+        Matcher matcher = SERVICE_URI_PATTERN.matcher(uri);
+        if(!matcher.find() || MSB_SERVICE_NAME.equals(matcher.group(1))) {
+            return null;
+        }
+        return matcher.group(1) + "/" + matcher.group(2);
+    }
+
+    private static class ServiceEntry {
+
+        volatile List<ServiceInstance> instances = Collections.emptyList();
+
+        final AtomicInteger next = new AtomicInteger();
+
+        volatile long lastUsed = System.currentTimeMillis();
+    }
+
+    private static class ServiceInstance {
+
+        final String host;
+
+        final int port;
+
+        final AtomicInteger outstanding = new AtomicInteger();
+
+        volatile boolean down;
+
+        ServiceInstance(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        String getKey() {
+            return host + ":" + port;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * Copies of the rest request and response objects, for the processors which share one response
+ * between callers or add headers to a request.<br/>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-22
+ */
+final class RestfulCopier {
+
+    /**
+     * Instance fields of RestfulOptions, which keeps its options in a private map and has no way
+     * to list them.
+     */
+    private static final Field[] OPTIONS_FIELDS = getInstanceFields(RestfulOptions.class);
+
+    private RestfulCopier() {
+
+    }
+
+    /**
+     * Copy all the options, the copy can be changed without changing the original.<br/>
+     * 
+     * @param restOptions options to copy.
+     * @return copy of the options.
+     * @since SDNO 0.5
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static RestfulOptions copyOptions(RestfulOptions restOptions) {
+        RestfulOptions copy = new RestfulOptions();
+        try {
+            for(Field field : OPTIONS_FIELDS) {
+                Object value = field.get(restOptions);
+                if(value instanceof Map) {
+                    // The map of the copy is its own, it may be final.
+                    ((Map)field.get(copy)).putAll((Map)value);
+                } else {
+                    field.set(copy, value);
+                }
+            }
+        } catch(IllegalAccessException e) {
+            throw new IllegalStateException("Copy RestfulOptions failed", e);
+        }
+        return copy;
+    }
+
+    /**
+     * Copy the parameters, the copy can be changed without changing the original.<br/>
+     * 
+     * @param restParametes parameters to copy.
+     * @return copy of the parameters.
+     * @since SDNO 0.5
+     */
+    static RestfulParametes copyParametes(RestfulParametes restParametes) {
+        RestfulParametes copy = new RestfulParametes();
+        copy.setRawData(restParametes.getRawData());
+        Map<String, String> params = restParametes.getParamMap();
+        if(params != null) {
+            for(Entry<String, String> param : params.entrySet()) {
+                copy.put(param.getKey(), param.getValue());
+            }
+        }
+        Map<String, String> headers = restParametes.getHeaderMap();
+        if(headers != null) {
+            for(Entry<String, String> header : headers.entrySet()) {
+                copy.putHttpContextHeader(header.getKey(), header.getValue());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Copy the response, the copy can be changed without changing the original.<br/>
+     * 
+     * @param response response to copy.
+     * @return copy of the response.
+     * @since SDNO 0.5
+     */
+    static RestfulResponse copyResponse(RestfulResponse response) {
+        RestfulResponse copy = new RestfulResponse();
+        copy.setStatus(response.getStatus());
+        copy.setResponseJson(response.getResponseContent());
+        Map<String, String> headers = response.getRespHeaderMap();
+        if(headers != null) {
+            copy.setRespHeaderMap(new HashMap<String, String>(headers));
+        }
+        return copy;
+    }
+
+    private static Field[] getInstanceFields(Class<?> clazz) {
+        Map<String, Field> fields = new HashMap<String, Field>();
+        for(Class<?> type = clazz; type != Object.class; type = type.getSuperclass()) {
+            for(final Field field : type.getDeclaredFields()) {
+                if(Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                AccessController.doPrivileged(new PrivilegedAction<Object>() {
+
+                    @Override
+                    public Object run() {
+                        field.setAccessible(true);
+                        return null;
+                    }
+                });
+                fields.put(type.getName() + '.' + field.getName(), field);
+            }
+        }
+        return fields.values().toArray(new Field[fields.size()]);
+    }
+}
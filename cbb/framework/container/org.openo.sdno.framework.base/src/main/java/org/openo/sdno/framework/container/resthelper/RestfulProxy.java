@@ -16,6 +16,14 @@
 
 package org.openo.sdno.framework.container.resthelper;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.baseservice.roa.util.restclient.RestfulOptions;
 import org.openo.baseservice.roa.util.restclient.RestfulParametes;
@@ -23,6 +31,14 @@ import org.openo.baseservice.roa.util.restclient.RestfulResponse;
 
 /**
  * RestfulProxy class.<br/>
+ * <p>
+ * Besides the blocking calls, every method has an asynchronous counterpart returning a Future, so
+ * that calls to several services can be issued in parallel and collected afterwards. The
+ * asynchronous calls run the current processor in an executor, by default a shared pool of
+ * daemon threads with a bounded queue. A call submitted to a full queue is not run, its Future and
+ * callback report the failure at once. The executor or the whole asynchronous processor can be
+ * replaced.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 2016-3-26
@@ -32,7 +48,45 @@ public class RestfulProxy {
     /**
      * Rest Request processor.
      */
-    private static IProcessor processor;
+    private static volatile IProcessor processor;
+
+    /**
+     * Asynchronous processor, created on first use.
+     */
+    private static volatile IAsyncProcessor asyncProcessor;
+
+    /**
+     * Number of threads of the default asynchronous executor.
+     */
+    private static final int ASYNC_THREAD_COUNT = 32;
+
+    /**
+     * Maximum number of waiting calls of the default asynchronous executor.
+     */
+    private static final int ASYNC_QUEUE_SIZE = 1024;
+
+    /**
+     * Idle time (seconds) of the threads of the default asynchronous executor.
+     */
+    private static final long ASYNC_IDLE_ALIVE_TIME = 60;
+
+    /**
+     * Processor forwarding to the current processor, used by the asynchronous calls.
+     */
+    private static final IProcessor CURRENT_PROCESSOR = new IProcessor() {
+
+        @Override
+        public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+                throws ServiceException {
+            return processor.doAction(action, uri, restParametes);
+        }
+
+        @Override
+        public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes,
+                RestfulOptions restOptions) throws ServiceException {
+            return processor.doAction(action, uri, restParametes, restOptions);
+        }
+    };
 
     static {
         processor = new RestProcessor();
@@ -153,4 +207,185 @@ public class RestfulProxy {
             throws ServiceException {
         return processor.doAction(RestfulMethod.DELETE, uri, restParametes, restOptions);
     }
+
+    /**
+     * Set the processor of all the calls, such as a LoadBalancedProcessor.<br/>
+     * 
+     * @param newProcessor rest request processor, null to restore the default RestProcessor.
+     * @since SDNO 0.5
+     */
+    public static void setProcessor(IProcessor newProcessor) {
+        processor = (newProcessor == null) ? new RestProcessor() : newProcessor;
+    }
+
+    /**
+     * @return Returns the current processor.
+     */
+    public static IProcessor getProcessor() {
+        return processor;
+    }
+
+    /**
+     * Set the executor running the asynchronous calls, replacing the current asynchronous
+     * processor. The executor is not shut down by RestfulProxy.<br/>
+     * 
+     * @param executor executor running the requests.
+     * @since SDNO 0.5
+     */
+    public static void setAsyncExecutor(ExecutorService executor) {
+        asyncProcessor = new AsyncRestProcessor(CURRENT_PROCESSOR, executor);
+    }
+
+    /**
+     * Set the processor of the asynchronous calls.<br/>
+     * 
+     * @param processor asynchronous processor, null to use the default one.
+     * @since SDNO 0.5
+     */
+    public static void setAsyncProcessor(IAsyncProcessor processor) {
+        asyncProcessor = processor;
+    }
+
+    /**
+     * do get action asynchronously.<br/>
+     * 
+     * @param uri uri of the http request.
+     * @param restParametes parameters of rest request.
+     * @return Future of the RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    public static Future<RestfulResponse> getAsync(String uri, RestfulParametes restParametes) {
+        return getAsyncProcessor().doActionAsync(RestfulMethod.GET, uri, restParametes, null, null);
+    }
+
+    /**
+     * do get action asynchronously.<br/>
+     * 
+     * @param uri uri of the http request.
+     * @param restParametes parameters of rest request.
+     * @param restOptions options of the rest, can be null.
+     * @param callback callback notified on completion, can be null.
+     * @return Future of the RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    public static Future<RestfulResponse> getAsync(String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions, RestfulResponseCallback callback) {
+        return getAsyncProcessor().doActionAsync(RestfulMethod.GET, uri, restParametes, restOptions, callback);
+    }
+
+    /**
+     * do put action asynchronously.<br/>
+     * 
+     * @param uri uri of the http request.
+     * @param restParametes parameters of rest request.
+     * @return Future of the RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    public static Future<RestfulResponse> putAsync(String uri, RestfulParametes restParametes) {
+        return getAsyncProcessor().doActionAsync(RestfulMethod.PUT, uri, restParametes, null, null);
+    }
+
+    /**
+     * do put action asynchronously.<br/>
+     * 
+     * @param uri uri of the http request.
+     * @param restParametes parameters of rest request.
+     * @param restOptions options of the rest, can be null.
+     * @param callback callback notified on completion, can be null.
+     * @return Future of the RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    public static Future<RestfulResponse> putAsync(String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions, RestfulResponseCallback callback) {
+        return getAsyncProcessor().doActionAsync(RestfulMethod.PUT, uri, restParametes, restOptions, callback);
+    }
+
+    /**
+     * do post action asynchronously.<br/>
+     * 
+     * @param uri uri of the http request.
+     * @param restParametes parameters of rest request.
+     * @return Future of the RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    public static Future<RestfulResponse> postAsync(String uri, RestfulParametes restParametes) {
+        return getAsyncProcessor().doActionAsync(RestfulMethod.POST, uri, restParametes, null, null);
+    }
+
+    /**
+     * do post action asynchronously.<br/>
+     * 
+     * @param uri uri of the http request.
+     * @param restParametes parameters of rest request.
+     * @param restOptions options of the rest, can be null.
+     * @param callback callback notified on completion, can be null.
+     * @return Future of the RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    public static Future<RestfulResponse> postAsync(String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions, RestfulResponseCallback callback) {
+        return getAsyncProcessor().doActionAsync(RestfulMethod.POST, uri, restParametes, restOptions, callback);
+    }
+
+    /**
+     * do delete action asynchronously.<br/>
+     * 
+     * @param uri uri of the http request.
+     * @param restParametes parameters of rest request.
+     * @return Future of the RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    public static Future<RestfulResponse> deleteAsync(String uri, RestfulParametes restParametes) {
+        return getAsyncProcessor().doActionAsync(RestfulMethod.DELETE, uri, restParametes, null, null);
+    }
+
+    /**
+     * do delete action asynchronously.<br/>
+     * 
+     * @param uri uri of the http request.
+     * @param restParametes parameters of rest request.
+     * @param restOptions options of the rest, can be null.
+     * @param callback callback notified on completion, can be null.
+     * @return Future of the RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    public static Future<RestfulResponse> deleteAsync(String uri, RestfulParametes restParametes,
+            RestfulOptions restOptions, RestfulResponseCallback callback) {
+        return getAsyncProcessor().doActionAsync(RestfulMethod.DELETE, uri, restParametes, restOptions, callback);
+    }
+
+    private static IAsyncProcessor getAsyncProcessor() {
+        IAsyncProcessor current = asyncProcessor;
+        if(current == null) {
+            synchronized(RestfulProxy.class) {
+                current = asyncProcessor;
+                if(current == null) {
+                    current = new AsyncRestProcessor(CURRENT_PROCESSOR, createDefaultExecutor());
+                    asyncProcessor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "RestfulProxy-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        // Calls beyond the queue are rejected and reported as failed by AsyncRestProcessor, the
+        // caller thread never runs a request itself.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(ASYNC_THREAD_COUNT, ASYNC_THREAD_COUNT,
+                ASYNC_IDLE_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(ASYNC_QUEUE_SIZE),
+                threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
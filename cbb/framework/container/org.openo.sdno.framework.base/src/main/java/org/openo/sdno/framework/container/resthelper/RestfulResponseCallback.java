@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * Callback notified when an asynchronous rest request completes.<br/>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-19
+ */
+public interface RestfulResponseCallback {
+
+    /**
+     * Called in the worker thread when the request returns a response.<br/>
+     * 
+     * @param response RestfulResponse from the server.
+     * @since SDNO 0.5
+     */
+    void onComplete(RestfulResponse response);
+
+    /**
+     * Called in the worker thread when the request fails.<br/>
+     * 
+     * @param e exception thrown by the processor.
+     * @since SDNO 0.5
+     */
+    void onFailure(ServiceException e);
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * Runs at most one call per key at a time, concurrent callers of the same key wait for the call
+ * in flight and share its result.<br/>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-21
+ */
+class SingleFlight {
+
+    private final ConcurrentMap<String, FutureTask<RestfulResponse>> calls =
+            new ConcurrentHashMap<String, FutureTask<RestfulResponse>>();
+
+    /**
+     * Run the call, or wait for the call of the same key which is already in flight.<br/>
+     * 
+     * @param key key of the call.
+     * @param call call to run.
+     * @return result of the call.
+     * @throws ServiceException if the call fails or the caller is interrupted while waiting.
+     * @since SDNO 0.5
+     */
+    RestfulResponse execute(String key, Callable<RestfulResponse> call) throws ServiceException {
+        FutureTask<RestfulResponse> task = new FutureTask<RestfulResponse>(call);
+        FutureTask<RestfulResponse> inFlight = calls.putIfAbsent(key, task);
+        if(inFlight == null) {
+            try {
+                task.run();
+            } finally {
+                calls.remove(key, task);
+            }
+            inFlight = task;
+        }
+
+        try {
+            return inFlight.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Interrupted while waiting for " + key, e);
+        } catch(ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof ServiceException) {
+                throw (ServiceException)cause;
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new ServiceException("Call failed for " + key, cause);
+        }
+    }
+
+    /**
+     * Get the number of calls in flight.<br/>
+     * 
+     * @return number of calls in flight.
+     * @since SDNO 0.5
+     */
+    int getInFlightCount() {
+        return calls.size();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * Processor which coalesces identical concurrent GET calls.<br/>
+ * <p>
+ * A GET call with the same uri, query parameters, headers and target host as a GET call already
+ * in flight does not send its own request, it waits for the call in flight and gets the same
+ * response, or the same ServiceException. Each caller gets its own copy of the response. Other
+ * calls go to the delegate processor unchanged.
+ * </p>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-22
+ */
+public class SingleFlightProcessor implements IProcessor {
+
+    private final IProcessor delegate;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * Constructor.<br/>
+     * 
+     * @param delegate processor sending the calls.
+     * @since SDNO 0.5
+     */
+    public SingleFlightProcessor(IProcessor delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Get the number of GET calls in flight.<br/>
+     * 
+     * @return number of GET calls in flight.
+     * @since SDNO 0.5
+     */
+    public int getInFlightCount() {
+        return singleFlight.getInFlightCount();
+    }
+
+    @Override
+    public RestfulResponse doAction(final RestfulMethod action, final String uri,
+            final RestfulParametes restParametes) throws ServiceException {
+        if(action != RestfulMethod.GET) {
+            return delegate.doAction(action, uri, restParametes);
+        }
+
+        return RestfulCopier.copyResponse(singleFlight.execute(getCallKey(uri, restParametes, null),
+                new Callable<RestfulResponse>() {
+
+                    @Override
+                    public RestfulResponse call() throws ServiceException {
+                        return delegate.doAction(action, uri, restParametes);
+                    }
+                }));
+    }
+
+    @Override
+    public RestfulResponse doAction(final RestfulMethod action, final String uri,
+            final RestfulParametes restParametes, final RestfulOptions restOptions) throws ServiceException {
+        if(action != RestfulMethod.GET) {
+            return delegate.doAction(action, uri, restParametes, restOptions);
+        }
+
+        return RestfulCopier.copyResponse(singleFlight.execute(getCallKey(uri, restParametes, restOptions),
+                new Callable<RestfulResponse>() {
+
+                    @Override
+                    public RestfulResponse call() throws ServiceException {
+                        return delegate.doAction(action, uri, restParametes, restOptions);
+                    }
+                }));
+    }
+
+    private static String getCallKey(String uri, RestfulParametes restParametes, RestfulOptions restOptions) {
+        StringBuilder key = new StringBuilder(uri);
+        appendSorted(key.append('?'), restParametes.getParamMap());
+        appendSorted(key.append('#'), restParametes.getHeaderMap());
+        if(restOptions != null) {
+            key.append('@').append(restOptions.getHost()).append(':').append(restOptions.getPort());
+        }
+        return key.toString();
+    }
+
+    private static void appendSorted(StringBuilder key, Map<String, String> values) {
+        if((values != null) && !values.isEmpty()) {
+            key.append(new TreeMap<String, String>(values));
+        }
+    }
+}
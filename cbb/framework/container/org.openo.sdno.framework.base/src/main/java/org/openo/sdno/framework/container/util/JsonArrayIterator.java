@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterator over the elements of a JSON array, which binds one element at a time while the array
+ * is read.<br/>
+ * <p>
+ * The parser is closed when the end of the array is reached or when the iterator is closed.
+ * Parse errors are thrown as IllegalArgumentException, the same way as JsonUtil does.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2017-4-18
+ */
+public class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonArrayIterator.class);
+
+    private final JsonParser parser;
+
+    private final ObjectReader reader;
+
+    private boolean hasPending = false;
+
+    private boolean finished = false;
+
+    JsonArrayIterator(JsonParser parser, ObjectReader reader) {
+        this.parser = parser;
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(hasPending) {
+            return true;
+        }
+        if(finished) {
+            return false;
+        }
+
+        try {
+            JsonToken token = parser.nextToken();
+            if(token == null) {
+                throw new IOException("Unexpected end of JSON array");
+            }
+            if(token == JsonToken.END_ARRAY) {
+                close();
+                return false;
+            }
+            hasPending = true;
+            return true;
+        } catch(IOException ex) {
+            close();
+            LOGGER.error("Parser array element error.", ex);
+            throw new IllegalArgumentException("Parser json array element error.", ex);
+        }
+    }
+
+    @Override
+    public T next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        hasPending = false;
+        try {
+            return reader.readValue(parser);
+        } catch(IOException ex) {
+            close();
+            LOGGER.error("Parser array element error.", ex);
+            throw new IllegalArgumentException("Parser json array element error.", ex);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Close the parser and the underlying stream.<br/>
+     *
+     * @since SDNO 0.5
+     */
+    @Override
+    public void close() {
+        if(finished) {
+            return;
+        }
+        finished = true;
+        hasPending = false;
+        try {
+            parser.close();
+        } catch(IOException ex) {
+            LOGGER.warn("Close json parser failed.", ex);
+        }
+    }
+}
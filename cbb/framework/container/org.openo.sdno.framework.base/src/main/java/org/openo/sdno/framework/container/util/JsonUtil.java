@@ -18,15 +18,38 @@ package org.openo.sdno.framework.container.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.DeserializationConfig;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.type.TypeReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Json tools class, packaging a number of commonly used Json methods.<br>
+ * <p>
+ * All the methods share one configured ObjectMapper. Readers are created once per target type
+ * and cached, ObjectReader and ObjectWriter are immutable and thread-safe, so the serializer and
+ * deserializer caches of Jackson are built once instead of on every call.
+ * </p>
+ * <p>
+ * The stream methods read and write directly from and to the stream without an intermediate
+ * string, and leave the stream open. Large top-level arrays can be read one element at a time
+ * with {@link #iterateArray(InputStream, Class)}.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 2016-3-26
@@ -35,6 +58,12 @@ public final class JsonUtil {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonUtil.class);
 
+    private static final ObjectMapper MAPPER = createMapper();
+
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    private static final ConcurrentMap<Type, ObjectReader> READERS = new ConcurrentHashMap<Type, ObjectReader>();
+
     private JsonUtil() {
     }
 
@@ -47,7 +76,7 @@ public final class JsonUtil {
      */
     public static String toJson(Object obj) {
         try {
-            return new ObjectMapper().writeValueAsString(obj);
+            return WRITER.writeValueAsString(obj);
         } catch(IOException ex) {
             LOGGER.error("Parser to json error.", ex);
             throw new IllegalArgumentException("Parser obj to json error, obj = " + obj, ex);
@@ -64,9 +93,7 @@ public final class JsonUtil {
      */
     public static <T> T fromJson(String jsonStr, Class<T> objClass) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return mapper.readValue(jsonStr, objClass);
+            return getReader(objClass).readValue(jsonStr);
         } catch(IOException ex) {
             LOGGER.error("Parser to object error.", ex);
             throw new IllegalArgumentException(
@@ -84,9 +111,7 @@ public final class JsonUtil {
      */
     public static <T> T fromJson(String jsonStr, TypeReference<T> typeRef) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return mapper.readValue(jsonStr, typeRef);
+            return getReader(typeRef).readValue(jsonStr);
         } catch(IOException ex) {
             LOGGER.error("Parser to object by type reference error.", ex);
             throw new IllegalArgumentException(
@@ -104,15 +129,241 @@ public final class JsonUtil {
      */
     public static <T> T fromJson(File file, Class<T> objClass) {
         try {
-
-            ObjectMapper mapper = new ObjectMapper();
-
-            mapper.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return mapper.readValue(file, objClass);
+            return getReader(objClass).readValue(file);
         } catch(IOException ex) {
             LOGGER.error("Parser to object error.", ex);
             throw new IllegalArgumentException(
                     "Parser json to object error, file = " + file.getName() + ", expect class = " + objClass, ex);
         }
     }
+
+    /**
+     * Convert object to UTF-8 encoded JSON bytes, without building a string first.<br>
+     * 
+     * @param obj The object to be converted
+     * @return The JSON bytes
+     * @since SDNO 0.5
+     */
+    public static byte[] toJsonBytes(Object obj) {
+        try {
+            return WRITER.writeValueAsBytes(obj);
+        } catch(IOException ex) {
+            LOGGER.error("Parser to json error.", ex);
+            throw new IllegalArgumentException("Parser obj to json error, obj = " + obj, ex);
+        }
+    }
+
+    /**
+     * Convert JSON bytes to object. The bytes are parsed directly, the encoding is detected from
+     * the content as JSON allows.<br>
+     * 
+     * @param bytes The JSON bytes to be converted
+     * @param objClass The object class
+     * @return The objClass object
+     * @since SDNO 0.5
+     */
+    public static <T> T fromJson(byte[] bytes, Class<T> objClass) {
+        try {
+            return getReader(objClass).readValue(bytes);
+        } catch(IOException ex) {
+            LOGGER.error("Parser to object error.", ex);
+            throw new IllegalArgumentException("Parser json to object error, expect class = " + objClass, ex);
+        }
+    }
+
+    /**
+     * Convert JSON bytes to object. The bytes are parsed directly, the encoding is detected from
+     * the content as JSON allows.<br>
+     * 
+     * @param bytes The JSON bytes to be converted
+     * @param typeRef The object type
+     * @return The typeRef object
+     * @since SDNO 0.5
+     */
+    public static <T> T fromJson(byte[] bytes, TypeReference<T> typeRef) {
+        try {
+            return getReader(typeRef).readValue(bytes);
+        } catch(IOException ex) {
+            LOGGER.error("Parser to object by type reference error.", ex);
+            throw new IllegalArgumentException("Parser json to object error, expect type = " + typeRef.getType(), ex);
+        }
+    }
+
+    /**
+     * Write object as UTF-8 JSON to the stream.<br>
+     * 
+     * @param obj The object to be converted
+     * @param out The output stream, flushed but not closed
+     * @since SDNO 0.5
+     */
+    public static void toJson(Object obj, OutputStream out) {
+        try {
+            writeValue(MAPPER.getJsonFactory().createJsonGenerator(out, JsonEncoding.UTF8), obj);
+        } catch(IOException ex) {
+            LOGGER.error("Parser to json error.", ex);
+            throw new IllegalArgumentException("Parser obj to json error, obj = " + obj, ex);
+        }
+    }
+
+    /**
+     * Write object as JSON to the writer.<br>
+     * 
+     * @param obj The object to be converted
+     * @param writer The writer, flushed but not closed
+     * @since SDNO 0.5
+     */
+    public static void toJson(Object obj, Writer writer) {
+        try {
+            writeValue(MAPPER.getJsonFactory().createJsonGenerator(writer), obj);
+        } catch(IOException ex) {
+            LOGGER.error("Parser to json error.", ex);
+            throw new IllegalArgumentException("Parser obj to json error, obj = " + obj, ex);
+        }
+    }
+
+    /**
+     * Read JSON from the stream and convert it to object.<br>
+     * 
+     * @param in The input stream, not closed
+     * @param objClass The object class
+     * @return The objClass object
+     * @since SDNO 0.5
+     */
+    public static <T> T fromJson(InputStream in, Class<T> objClass) {
+        try {
+            return getReader(objClass).readValue(MAPPER.getJsonFactory().createJsonParser(in));
+        } catch(IOException ex) {
+            LOGGER.error("Parser to object error.", ex);
+            throw new IllegalArgumentException("Parser json to object error, expect class = " + objClass, ex);
+        }
+    }
+
+    /**
+     * Read JSON from the stream and convert it to object.<br>
+     * 
+     * @param in The input stream, not closed
+     * @param typeRef The object type
+     * @return The typeRef object
+     * @since SDNO 0.5
+     */
+    public static <T> T fromJson(InputStream in, TypeReference<T> typeRef) {
+        try {
+            return getReader(typeRef).readValue(MAPPER.getJsonFactory().createJsonParser(in));
+        } catch(IOException ex) {
+            LOGGER.error("Parser to object by type reference error.", ex);
+            throw new IllegalArgumentException("Parser json to object error, expect type = " + typeRef.getType(), ex);
+        }
+    }
+
+    /**
+     * Read JSON from the reader and convert it to object.<br>
+     * 
+     * @param reader The reader, not closed
+     * @param objClass The object class
+     * @return The objClass object
+     * @since SDNO 0.5
+     */
+    public static <T> T fromJson(Reader reader, Class<T> objClass) {
+        try {
+            return getReader(objClass).readValue(MAPPER.getJsonFactory().createJsonParser(reader));
+        } catch(IOException ex) {
+            LOGGER.error("Parser to object error.", ex);
+            throw new IllegalArgumentException("Parser json to object error, expect class = " + objClass, ex);
+        }
+    }
+
+    /**
+     * Read JSON from the reader and convert it to object.<br>
+     * 
+     * @param reader The reader, not closed
+     * @param typeRef The object type
+     * @return The typeRef object
+     * @since SDNO 0.5
+     */
+    public static <T> T fromJson(Reader reader, TypeReference<T> typeRef) {
+        try {
+            return getReader(typeRef).readValue(MAPPER.getJsonFactory().createJsonParser(reader));
+        } catch(IOException ex) {
+            LOGGER.error("Parser to object by type reference error.", ex);
+            throw new IllegalArgumentException("Parser json to object error, expect type = " + typeRef.getType(), ex);
+        }
+    }
+
+    /**
+     * Read a top-level JSON array from the stream one element at a time. Only the current
+     * element is held in memory. The iterator must be closed after use, which closes the
+     * stream.<br>
+     * 
+     * @param in The input stream of a JSON array
+     * @param elementClass The element class
+     * @return Iterator of the array elements
+     * @since SDNO 0.5
+     */
+    public static <T> JsonArrayIterator<T> iterateArray(InputStream in, Class<T> elementClass) {
+        try {
+            return openArray(MAPPER.getJsonFactory().createJsonParser(in), elementClass);
+        } catch(IOException ex) {
+            LOGGER.error("Parser to array error.", ex);
+            throw new IllegalArgumentException("Parser json to array error, expect class = " + elementClass, ex);
+        }
+    }
+
+    /**
+     * Read a top-level JSON array from the reader one element at a time. Only the current
+     * element is held in memory. The iterator must be closed after use, which closes the
+     * reader.<br>
+     * 
+     * @param reader The reader of a JSON array
+     * @param elementClass The element class
+     * @return Iterator of the array elements
+     * @since SDNO 0.5
+     */
+    public static <T> JsonArrayIterator<T> iterateArray(Reader reader, Class<T> elementClass) {
+        try {
+            return openArray(MAPPER.getJsonFactory().createJsonParser(reader), elementClass);
+        } catch(IOException ex) {
+            LOGGER.error("Parser to array error.", ex);
+            throw new IllegalArgumentException("Parser json to array error, expect class = " + elementClass, ex);
+        }
+    }
+
+    private static <T> JsonArrayIterator<T> openArray(JsonParser parser, Class<T> elementClass) throws IOException {
+        if(parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("JSON content is not an array");
+        }
+        return new JsonArrayIterator<T>(parser, getReader(elementClass));
+    }
+
+    private static void writeValue(JsonGenerator generator, Object obj) throws IOException {
+        WRITER.writeValue(generator, obj);
+        generator.flush();
+    }
+
+    private static ObjectReader getReader(Class<?> objClass) {
+        ObjectReader reader = READERS.get(objClass);
+        if(reader == null) {
+            reader = cacheReader(objClass, MAPPER.reader(objClass));
+        }
+        return reader;
+    }
+
+    private static ObjectReader getReader(TypeReference<?> typeRef) {
+        ObjectReader reader = READERS.get(typeRef.getType());
+        if(reader == null) {
+            reader = cacheReader(typeRef.getType(), MAPPER.reader(typeRef));
+        }
+        return reader;
+    }
+
+    private static ObjectReader cacheReader(Type type, ObjectReader reader) {
+        ObjectReader cached = READERS.putIfAbsent(type, reader);
+        return (cached == null) ? reader : cached;
+    }
+
+    private static ObjectMapper createMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper;
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.base.threadpool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * KeyedTaskExecutor test class.<br>
+ *
+ * @author
+ * @version SDNO 0.5 2017-3-22
+ */
+public class KeyedTaskExecutorTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testLimitPerKey() throws Exception {
+        KeyedTaskExecutor keyedExecutor = new KeyedTaskExecutor(executor, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Future<String> first = keyedExecutor.submit("host1", new BlockingTask("first", latch));
+        Future<String> second = keyedExecutor.submit("host1", new BlockingTask("second", latch));
+        Future<String> other = keyedExecutor.submit("host2", new BlockingTask("other", null));
+
+        assertEquals("other", other.get(5, TimeUnit.SECONDS));
+        assertEquals(1, keyedExecutor.getRunningCount("host1"));
+        assertEquals(1, keyedExecutor.getWaitingCount("host1"));
+
+        latch.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        KeyedTaskExecutor keyedExecutor = new KeyedTaskExecutor(executor, 1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        keyedExecutor.submit("host1", new BlockingTask("first", latch));
+        keyedExecutor.submit("host1", new BlockingTask("second", latch));
+        try {
+            keyedExecutor.submit("host1", new BlockingTask("third", latch));
+            fail("The third task should be rejected.");
+        } catch(RejectedExecutionException e) {
+            assertEquals(1, keyedExecutor.getWaitingCount("host1"));
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void testLongQueueOnCallerRunsExecutor() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Runnable> held = new ArrayList<Runnable>();
+        // Holds the first task, then runs every task in the calling thread.
+        Executor callerRuns = new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+                if(latch.getCount() > 0) {
+                    held.add(command);
+                } else {
+                    command.run();
+                }
+            }
+        };
+        KeyedTaskExecutor keyedExecutor = new KeyedTaskExecutor(callerRuns, 1);
+
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for(int i = 0; i < 20000; i++) {
+            futures.add(keyedExecutor.submit("host1", new BlockingTask("task" + i, null)));
+        }
+        latch.countDown();
+        held.get(0).run();
+
+        assertEquals("task19999", futures.get(19999).get(5, TimeUnit.SECONDS));
+        assertEquals(0, keyedExecutor.getRunningCount("host1"));
+    }
+
+    @Test
+    public void testLongQueueOnRejectingExecutor() throws Exception {
+        ExecutorService shutdownExecutor = Executors.newSingleThreadExecutor();
+        final CountDownLatch latch = new CountDownLatch(1);
+        KeyedTaskExecutor keyedExecutor = new KeyedTaskExecutor(shutdownExecutor, 1);
+
+        Future<String> first = keyedExecutor.submit("host1", new BlockingTask("first", latch));
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for(int i = 0; i < 20000; i++) {
+            futures.add(keyedExecutor.submit("host1", new BlockingTask("task" + i, null)));
+        }
+        shutdownExecutor.shutdown();
+        latch.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        try {
+            futures.get(19999).get(5, TimeUnit.SECONDS);
+            fail("Tasks should fail when the executor rejects them.");
+        } catch(ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void testRejectedTaskIsReported() throws Exception {
+        ExecutorService shutdownExecutor = Executors.newSingleThreadExecutor();
+        shutdownExecutor.shutdown();
+        final List<Callable<?>> rejected = new ArrayList<Callable<?>>();
+        KeyedTaskExecutor keyedExecutor = new KeyedTaskExecutor(shutdownExecutor, 1) {
+
+            @Override
+            protected void onRejected(String key, Callable<?> task, RejectedExecutionException cause) {
+                assertEquals("host1", key);
+                rejected.add(task);
+            }
+        };
+
+        BlockingTask task = new BlockingTask("task", null);
+        Future<String> future = keyedExecutor.submit("host1", task);
+        assertTrue(future.isDone());
+        assertEquals(1, rejected.size());
+        assertTrue(rejected.get(0) == task);
+        assertEquals(0, keyedExecutor.getRunningCount("host1"));
+    }
+
+    private static class BlockingTask implements Callable<String> {
+
+        private final String name;
+
+        private final CountDownLatch latch;
+
+        BlockingTask(String name, CountDownLatch latch) {
+            this.name = name;
+            this.latch = latch;
+        }
+
+        @Override
+        public String call() throws InterruptedException {
+            if(latch != null) {
+                latch.await();
+            }
+            return name;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * AsyncRestProcessor test class.<br/>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-19
+ */
+public class AsyncRestProcessorTest {
+
+    private final RestfulResponse response = new RestfulResponse();
+
+    private final AtomicReference<Object> notified = new AtomicReference<Object>();
+
+    private ExecutorService executor;
+
+    private AsyncRestProcessor asyncProcessor;
+
+    private final RestfulResponseCallback callback = new RestfulResponseCallback() {
+
+        @Override
+        public void onComplete(RestfulResponse response) {
+            notified.set(response);
+        }
+
+        @Override
+        public void onFailure(ServiceException e) {
+            notified.set(e);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        asyncProcessor = new AsyncRestProcessor(new IProcessor() {
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+                    throws ServiceException {
+                if(uri.startsWith("/fail")) {
+                    throw new ServiceException("failed");
+                }
+                if(uri.startsWith("/crash")) {
+                    throw new IllegalStateException("crashed");
+                }
+                return response;
+            }
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes,
+                    RestfulOptions restOptions) throws ServiceException {
+                return doAction(action, uri, restParametes);
+            }
+        }, executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testDoActionAsync() throws Exception {
+        Future<RestfulResponse> future =
+                asyncProcessor.doActionAsync(RestfulMethod.GET, "/get", new RestfulParametes(), null, callback);
+        assertSame(response, future.get(5, TimeUnit.SECONDS));
+        assertSame(response, notified.get());
+    }
+
+    @Test
+    public void testDoActionAsyncFailure() throws Exception {
+        Future<RestfulResponse> future = asyncProcessor.doActionAsync(RestfulMethod.POST, "/fail",
+                new RestfulParametes(), new RestfulOptions(), callback);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Failure of the processor should be reported by the future.");
+        } catch(ExecutionException e) {
+            assertSame(e.getCause(), notified.get());
+            assertEquals("failed", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testDoActionAsyncRuntimeFailure() throws Exception {
+        Future<RestfulResponse> future =
+                asyncProcessor.doActionAsync(RestfulMethod.GET, "/crash", new RestfulParametes(), null, callback);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Runtime failure of the processor should be reported by the future.");
+        } catch(ExecutionException e) {
+            assertSame(e.getCause(), notified.get());
+            assertTrue(e.getCause() instanceof ServiceException);
+            assertEquals("crashed", e.getCause().getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testDoActionAsyncRejected() throws Exception {
+        executor.shutdown();
+        Future<RestfulResponse> future =
+                asyncProcessor.doActionAsync(RestfulMethod.GET, "/get", new RestfulParametes(), null, callback);
+        assertTrue(future.isDone());
+        try {
+            future.get();
+            fail("Rejected request should be reported by the future.");
+        } catch(ExecutionException e) {
+            assertSame(e.getCause(), notified.get());
+            assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * CachingProcessor test class.<br/>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-21
+ */
+public class CachingProcessorTest {
+
+    private final AtomicInteger getCount = new AtomicInteger();
+
+    private final List<String> ifNoneMatch = Collections.synchronizedList(new ArrayList<String>());
+
+    private final List<RestfulParametes> sentParametes =
+            Collections.synchronizedList(new ArrayList<RestfulParametes>());
+
+    private volatile CountDownLatch proceed;
+
+    private CachingProcessor processor;
+
+    @Before
+    public void setUp() {
+        processor = new CachingProcessor(new IProcessor() {
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+                    throws ServiceException {
+                RestfulResponse response = new RestfulResponse();
+                response.setStatus(200);
+                if(action != RestfulMethod.GET) {
+                    return response;
+                }
+
+                getCount.incrementAndGet();
+                sentParametes.add(restParametes);
+                awaitProceed();
+                String etag = restParametes.getHttpContextHeader("If-None-Match");
+                ifNoneMatch.add(etag);
+                if("\"v1\"".equals(etag)) {
+                    response.setStatus(304);
+                }
+                response.setRespHeaderMap(Collections.singletonMap("etag", "\"v1\""));
+                return response;
+            }
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes,
+                    RestfulOptions restOptions) throws ServiceException {
+                return doAction(action, uri, restParametes);
+            }
+        }, 2);
+    }
+
+    @Test
+    public void testNotCachedWithoutTtl() throws ServiceException {
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes());
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes());
+        assertEquals(2, getCount.get());
+        assertEquals(0, processor.size());
+    }
+
+    @Test
+    public void testUriTtl() throws ServiceException {
+        processor.setTtl("/openoapi/svc", 60000L);
+        RestfulResponse response =
+                processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes());
+        RestfulResponse cached =
+                processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes());
+        assertNotSame(response, cached);
+        assertEquals(response.getRespHeaderMap(), cached.getRespHeaderMap());
+        assertEquals(1, getCount.get());
+
+        RestfulParametes otherQuery = new RestfulParametes();
+        otherQuery.put("name", "site1");
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", otherQuery);
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/controllers", new RestfulParametes());
+        assertEquals(3, getCount.get());
+        assertEquals(2, processor.size());
+    }
+
+    @Test
+    public void testRevalidateWithEtag() throws Exception {
+        RestfulOptions restOptions = new RestfulOptions();
+        restOptions.setOption(CachingProcessor.OPTION_CACHE_TTL, 1);
+        RestfulResponse response =
+                processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes(), restOptions);
+        Thread.sleep(10);
+
+        RestfulParametes restParametes = new RestfulParametes();
+        RestfulResponse revalidated =
+                processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", restParametes, restOptions);
+        assertEquals(200, revalidated.getStatus());
+        assertEquals(response.getRespHeaderMap(), revalidated.getRespHeaderMap());
+        assertEquals("[null, \"v1\"]", ifNoneMatch.toString());
+        assertNotSame(restParametes, sentParametes.get(1));
+        assertNull(restParametes.getHttpContextHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testHeadersAreKeyed() throws ServiceException {
+        processor.setTtl("/openoapi/svc", 60000L);
+        for(String token : new String[] {"token1", "token2", "token1"}) {
+            RestfulParametes restParametes = new RestfulParametes();
+            restParametes.putHttpContextHeader("X-Auth-Token", token);
+            processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", restParametes);
+        }
+        assertEquals(2, getCount.get());
+        assertEquals(2, processor.size());
+    }
+
+    @Test
+    public void testCachedResponseIsCopied() throws ServiceException {
+        processor.setTtl("/openoapi/svc", 60000L);
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes()).setStatus(500);
+        RestfulResponse cached =
+                processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes());
+        assertEquals(200, cached.getStatus());
+        assertEquals(1, getCount.get());
+    }
+
+    @Test
+    public void testWriteInvalidates() throws ServiceException {
+        processor.setTtl("/openoapi/svc", 60000L);
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes());
+        processor.doAction(RestfulMethod.PUT, "/openoapi/svc/v1/sites", new RestfulParametes());
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes());
+        assertEquals(2, getCount.get());
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneCall() throws Exception {
+        processor.setTtl("/openoapi/svc", 60000L);
+        proceed = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int i = 0; i < 5; i++) {
+            Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/sites", new RestfulParametes());
+                    } catch(ServiceException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Thread.sleep(100);
+        proceed.countDown();
+        for(Thread thread : threads) {
+            thread.join(5000);
+        }
+        assertEquals(1, getCount.get());
+    }
+
+    private void awaitProceed() {
+        CountDownLatch latch = proceed;
+        if(latch != null) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * LoadBalancedProcessor test class.<br/>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-20
+ */
+public class LoadBalancedProcessorTest {
+
+    private static final String SERVICE_INFO = "{\"serviceName\":\"svc\",\"version\":\"v1\",\"nodes\":["
+            + "{\"ip\":\"10.0.0.1\",\"port\":\"8080\"},{\"ip\":\"10.0.0.2\",\"port\":\"8080\"}]}";
+
+    private final List<String> calledHosts = new ArrayList<String>();
+
+    private int discoveryCount = 0;
+
+    private String failedHost;
+
+    private int failedHttpCode = 500;
+
+    private String unavailableHost;
+
+    private final List<RestfulOptions> calledOptions = new ArrayList<RestfulOptions>();
+
+    private LoadBalancedProcessor processor;
+
+    @Before
+    public void setUp() {
+        processor = new LoadBalancedProcessor(new IProcessor() {
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+                    throws ServiceException {
+                RestfulResponse response = new RestfulResponse();
+                response.setStatus(200);
+                if(uri.startsWith("/openoapi/microservices/v1/services/svc/version/v1")) {
+                    discoveryCount++;
+                    response.setResponseJson(SERVICE_INFO);
+                } else {
+                    calledHosts.add("msb");
+                }
+                return response;
+            }
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes,
+                    RestfulOptions restOptions) throws ServiceException {
+                String host = restOptions.getHost() + ":" + restOptions.getPort();
+                calledHosts.add(host);
+                calledOptions.add(restOptions);
+                if(host.equals(failedHost)) {
+                    ServiceException e = new ServiceException("call failed");
+                    e.setHttpCode(failedHttpCode);
+                    throw e;
+                }
+                RestfulResponse response = new RestfulResponse();
+                response.setStatus(host.equals(unavailableHost) ? 503 : 200);
+                return response;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    public void testRoundRobin() throws ServiceException {
+        for(int i = 0; i < 4; i++) {
+            processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes());
+        }
+        assertEquals(Arrays.asList("10.0.0.1:8080", "10.0.0.2:8080", "10.0.0.1:8080", "10.0.0.2:8080"),
+                calledHosts);
+        assertEquals(1, discoveryCount);
+        assertEquals(Arrays.asList("10.0.0.1:8080", "10.0.0.2:8080"),
+                processor.getInstances("/openoapi/svc/v1/resources/1"));
+    }
+
+    @Test
+    public void testOtherUriGoesThroughBus() throws ServiceException {
+        processor.doAction(RestfulMethod.GET, "/openoapi/microservices/v1/services", new RestfulParametes());
+        processor.doAction(RestfulMethod.GET, "/other", new RestfulParametes());
+        assertEquals(Arrays.asList("msb", "msb"), calledHosts);
+        assertEquals(0, discoveryCount);
+    }
+
+    @Test
+    public void testFailedInstanceIsSkipped() throws ServiceException {
+        failedHost = "10.0.0.1:8080";
+        try {
+            processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes());
+            fail("Failure of the instance should be thrown.");
+        } catch(ServiceException e) {
+            assertEquals(Arrays.asList("10.0.0.1:8080"), calledHosts);
+        }
+
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes());
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes());
+        assertEquals(Arrays.asList("10.0.0.1:8080", "10.0.0.2:8080", "10.0.0.2:8080"), calledHosts);
+    }
+
+    @Test
+    public void testServerErrorResponseSkipsInstance() throws ServiceException {
+        unavailableHost = "10.0.0.1:8080";
+        RestfulResponse response =
+                processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes());
+        assertEquals(503, response.getStatus());
+
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes());
+        processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes());
+        assertEquals(Arrays.asList("10.0.0.1:8080", "10.0.0.2:8080", "10.0.0.2:8080"), calledHosts);
+    }
+
+    @Test
+    public void testClientErrorKeepsInstance() throws ServiceException {
+        failedHost = "10.0.0.1:8080";
+        failedHttpCode = 404;
+        for(int i = 0; i < 3; i++) {
+            try {
+                processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes());
+            } catch(ServiceException e) {
+                assertEquals("call failed", e.getMessage());
+            }
+        }
+        assertEquals(Arrays.asList("10.0.0.1:8080", "10.0.0.2:8080", "10.0.0.1:8080"), calledHosts);
+    }
+
+    @Test
+    public void testCallerOptionsAreNotChanged() throws ServiceException {
+        RestfulOptions restOptions = new RestfulOptions();
+        restOptions.setOption(CachingProcessor.OPTION_CACHE_TTL, 5);
+        restOptions.setOption("custom", "value");
+        for(int i = 0; i < 2; i++) {
+            processor.doAction(RestfulMethod.GET, "/openoapi/svc/v1/resources", new RestfulParametes(), restOptions);
+        }
+        assertEquals(Arrays.asList("10.0.0.1:8080", "10.0.0.2:8080"), calledHosts);
+        assertTrue(StringUtils.isEmpty(restOptions.getHost()));
+        assertNotSame(restOptions, calledOptions.get(0));
+        assertEquals(5, calledOptions.get(1).getOption(CachingProcessor.OPTION_CACHE_TTL));
+        assertEquals("value", calledOptions.get(1).getOption("custom"));
+        assertEquals(8080, calledOptions.get(1).getPort());
+    }
+}
@@ -17,6 +17,9 @@
 package org.openo.sdno.framework.container.resthelper;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -220,4 +223,46 @@ public class RestfulProxyTest {
 
         RestfulProxy.delete(uri, restParam, restfulOptions);
     }
+
+    @Test
+    public void testGetAsync() throws Exception {
+        final String uri = "/get";
+        final RestfulParametes restParam = new RestfulParametes();
+        restParam.putHttpContextHeader(CONTENT_TYPE_HEADER, MEDIA_TYPE_JSON);
+        final RestfulResponse response = new RestfulResponse();
+
+        new MockUp<RestProcessor>() {
+
+            @Mock
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+                    throws ServiceException {
+                assertEquals(action.name(), RestfulMethod.GET.name());
+                return response;
+
+            }
+
+        };
+
+        assertSame(response, RestfulProxy.getAsync(uri, restParam).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSetProcessor() throws ServiceException {
+        final RestfulResponse response = new RestfulResponse();
+        RestfulProxy.setProcessor(new RestProcessor() {
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+                    throws ServiceException {
+                return response;
+            }
+        });
+
+        try {
+            assertSame(response, RestfulProxy.get("/get", new RestfulParametes()));
+        } finally {
+            RestfulProxy.setProcessor(null);
+        }
+        assertEquals(RestProcessor.class, RestfulProxy.getProcessor().getClass());
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.framework.container.resthelper;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.baseservice.roa.util.restclient.RestfulOptions;
+import org.openo.baseservice.roa.util.restclient.RestfulParametes;
+import org.openo.baseservice.roa.util.restclient.RestfulResponse;
+
+/**
+ * SingleFlightProcessor test class.<br/>
+ * 
+ * @author
+ * @version SDNO 0.5 2017-4-22
+ */
+public class SingleFlightProcessorTest {
+
+    private final AtomicInteger callCount = new AtomicInteger();
+
+    private final CountDownLatch proceed = new CountDownLatch(1);
+
+    private ExecutorService executor;
+
+    private SingleFlightProcessor processor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        processor = new SingleFlightProcessor(new IProcessor() {
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes)
+                    throws ServiceException {
+                callCount.incrementAndGet();
+                try {
+                    proceed.await(5, TimeUnit.SECONDS);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                RestfulResponse response = new RestfulResponse();
+                response.setStatus(200);
+                return response;
+            }
+
+            @Override
+            public RestfulResponse doAction(RestfulMethod action, String uri, RestfulParametes restParametes,
+                    RestfulOptions restOptions) throws ServiceException {
+                return doAction(action, uri, restParametes);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        proceed.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testIdenticalGetsShareOneCall() throws Exception {
+        List<Future<RestfulResponse>> futures = new ArrayList<Future<RestfulResponse>>();
+        for(int i = 0; i < 4; i++) {
+            futures.add(executor.submit(createCall(RestfulMethod.GET, "/openoapi/svc/v1/controllers/1")));
+        }
+        waitForCalls(1);
+        Thread.sleep(50);
+        proceed.countDown();
+
+        Set<RestfulResponse> responses = Collections.newSetFromMap(new IdentityHashMap<RestfulResponse, Boolean>());
+        for(Future<RestfulResponse> future : futures) {
+            RestfulResponse response = future.get(5, TimeUnit.SECONDS);
+            assertEquals(200, response.getStatus());
+            responses.add(response);
+        }
+        assertEquals(4, responses.size());
+        assertEquals(1, callCount.get());
+        assertEquals(0, processor.getInFlightCount());
+    }
+
+    @Test
+    public void testDifferentCallsAreNotShared() throws Exception {
+        List<Future<RestfulResponse>> futures = new ArrayList<Future<RestfulResponse>>();
+        futures.add(executor.submit(createCall(RestfulMethod.GET, "/openoapi/svc/v1/controllers/1")));
+        futures.add(executor.submit(createCall(RestfulMethod.GET, "/openoapi/svc/v1/controllers/2")));
+        futures.add(executor.submit(createCall(RestfulMethod.POST, "/openoapi/svc/v1/controllers/1")));
+        waitForCalls(3);
+        proceed.countDown();
+
+        for(Future<RestfulResponse> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(3, callCount.get());
+    }
+
+    private Callable<RestfulResponse> createCall(final RestfulMethod action, final String uri) {
+        return new Callable<RestfulResponse>() {
+
+            @Override
+            public RestfulResponse call() throws ServiceException {
+                return processor.doAction(action, uri, new RestfulParametes());
+            }
+        };
+    }
+
+    private void waitForCalls(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while((callCount.get() < count) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, callCount.get());
+    }
+}
@@ -17,16 +17,23 @@
 package org.openo.sdno.framework.container.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.JsonParseException;
 import org.codehaus.jackson.map.JsonMappingException;
-import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.type.TypeReference;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -69,7 +76,7 @@ public class JsonUtilTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testToJsonNegtive() {
-        new MockUp<ObjectMapper>() {
+        new MockUp<ObjectWriter>() {
 
             @Mock
             String writeValueAsString(Object value) throws IOException, JsonGenerationException, JsonMappingException {
@@ -87,17 +94,22 @@ public class JsonUtilTest {
 
     @Test(expected = IllegalArgumentException.class)
     public <T> void testFromJsonClassNegtive() {
-        new MockUp<ObjectMapper>() {
+        new MockUp<ObjectReader>() {
 
             @Mock
-            <T> T readValue(String content, Class<T> valueType)
-                    throws IOException, JsonParseException, JsonMappingException {
+            <T> T readValue(String content) throws IOException, JsonParseException, JsonMappingException {
                 throw new IOException();
             }
         };
         JsonUtil.fromJson(jsonStr, Map.class);
     }
 
+    @Test
+    public void testFromJsonIgnoresUnknownProperties() {
+        TestBean bean = JsonUtil.fromJson("{\"name\":\"a\",\"unknown\":1}", TestBean.class);
+        assertEquals("a", bean.getName());
+    }
+
     @Test
     public void testFromJsonTypeReference() {
         Map<String, String> tempMap = JsonUtil.fromJson(jsonStr, new TypeReference<Map<String, String>>() {});
@@ -106,14 +118,64 @@ public class JsonUtilTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testFromJsonTeRfNegtive() {
-        new MockUp<ObjectMapper>() {
+        new MockUp<ObjectReader>() {
 
             @Mock
-            <T> T readValue(String content, TypeReference valueTypeRef)
-                    throws IOException, JsonParseException, JsonMappingException {
+            <T> T readValue(String content) throws IOException, JsonParseException, JsonMappingException {
                 throw new IOException();
             }
         };
         JsonUtil.fromJson(jsonStr, new TypeReference<Map<String, String>>() {});
     }
+
+    @Test
+    public void testBytes() throws IOException {
+        byte[] bytes = JsonUtil.toJsonBytes(strMap);
+        assertEquals(jsonStr, new String(bytes, "UTF-8"));
+        assertEquals(strMap, JsonUtil.fromJson(bytes, Map.class));
+        assertEquals(strMap, JsonUtil.fromJson(bytes, new TypeReference<Map<String, String>>() {}));
+    }
+
+    @Test
+    public void testStreams() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonUtil.toJson(strMap, out);
+        assertEquals(jsonStr, out.toString("UTF-8"));
+
+        Map<String, String> tempMap = JsonUtil.fromJson(new ByteArrayInputStream(out.toByteArray()),
+                new TypeReference<Map<String, String>>() {});
+        assertEquals(strMap, tempMap);
+        assertEquals("a", JsonUtil.fromJson(new StringReader("{\"name\":\"a\"}"), TestBean.class).getName());
+    }
+
+    @Test
+    public void testIterateArray() {
+        String json = "[{\"name\":\"a\",\"list\":[1,2]},{\"name\":\"b\"},{\"name\":\"c\"}]";
+        List<String> names = new ArrayList<String>();
+        try (JsonArrayIterator<TestBean> iter = JsonUtil.iterateArray(new StringReader(json), TestBean.class)) {
+            while(iter.hasNext()) {
+                names.add(iter.next().getName());
+            }
+            assertFalse(iter.hasNext());
+        }
+        assertEquals("[a, b, c]", names.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIterateArrayNegtive() {
+        JsonUtil.iterateArray(new StringReader(jsonStr), TestBean.class);
+    }
+
+    public static class TestBean {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
 }